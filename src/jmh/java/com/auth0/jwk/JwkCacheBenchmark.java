@@ -0,0 +1,77 @@
+package com.auth0.jwk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hit path of each {@link JwkCache} implementation, as seen by a {@link CachedJwkProvider}
+ * serving a jwks of a few keys. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwkCacheBenchmark {
+
+    private static final int KEYS = 4;
+
+    @Param({"guava", "caffeine", "map"})
+    public String cache;
+
+    private CachedJwkProvider provider;
+    private String[] kids;
+
+    @Setup
+    public void setUp() throws JwkException {
+        JwkCache jwkCache;
+        switch (cache) {
+            case "caffeine":
+                jwkCache = new CaffeineJwkCache(KEYS, Duration.ofHours(10));
+                break;
+            case "map":
+                jwkCache = new ConcurrentMapJwkCache(KEYS, Duration.ofHours(10));
+                break;
+            default:
+                jwkCache = new GuavaJwkCache(KEYS, Duration.ofHours(10));
+        }
+        provider = new CachedJwkProvider(keyId -> {
+            throw new IllegalStateException("Unexpected cache miss for kid " + keyId);
+        }, jwkCache);
+        kids = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            kids[i] = "kid-" + i;
+            Map<String, Object> values = new HashMap<>();
+            values.put("kid", kids[i]);
+            values.put("kty", "RSA");
+            jwkCache.put(kids[i], Jwk.fromValues(values));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Jwk hitSingleThread(Cursor cursor) throws JwkException {
+        return provider.get(kids[cursor.next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Jwk hitContended(Cursor cursor) throws JwkException {
+        return provider.get(kids[cursor.next++ & (KEYS - 1)]);
+    }
+}
@@ -0,0 +1,388 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link JwkCache} that sizes itself to the keys actually in use.
+ *
+ * <p>Entries are weighed by the estimated size of their key material and certificate chain, so an
+ * RSA-4096 key counts for several P-256 keys. The cache tracks the distinct kids that are
+ * successfully served during each observation window. At the end of a window, its capacity is set
+ * to the weight of that working set plus some headroom, bounded by the given minimum and maximum
+ * weights. A service using a single key keeps a small cache, while a multi-tenant service grows to
+ * hold all of its active keys instead of thrashing. Unknown kids are not counted, so requests for
+ * kids that do not exist cannot inflate the cache. When the weight exceeds the capacity, the least
+ * recently used keys are evicted. Keys that are only put, such as the other keys of a fetched key
+ * set, are cached but do not count as used until they are requested, and they are evicted before
+ * any key that was requested.</p>
+ *
+ * <p>Keys are evicted in the order they were loaded, except that a key requested since it was
+ * queued is requeued instead, which approximates the least recently used order without any work on
+ * hits.</p>
+ *
+ * <p>Hits are lock-free and do not allocate. {@link #stats()} reports the hit ratio and the current
+ * sizing.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class AdaptiveJwkCache implements JwkCache {
+
+    private static final double HEADROOM = 1.25;
+    private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+
+    private final long minWeight;
+    private final long maxWeight;
+    private final long expiresInNanos;
+    private final long windowNanos;
+    private final LongSupplier ticker;
+    private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile BiConsumer<String, Jwk> removalListener;
+
+    private volatile Set<String> window = ConcurrentHashMap.newKeySet();
+    private volatile long windowStart;
+    private volatile long capacity;
+    private volatile int workingSetSize;
+    private long weight;
+    // eviction queue, guarded by the lock: put-only keys are queued at the head, loaded keys at the tail
+    private Entry head;
+    private Entry tail;
+
+    /**
+     * Creates a new cache whose weight adapts between the given bounds, observing the kids in use
+     * over windows of 5 minutes.
+     *
+     * @param minWeight minimum capacity of the cache, in estimated bytes
+     * @param maxWeight maximum capacity of the cache, in estimated bytes
+     * @param expiresIn amount of time a jwk will live in the cache
+     */
+    public AdaptiveJwkCache(long minWeight, long maxWeight, Duration expiresIn) {
+        this(minWeight, maxWeight, expiresIn, DEFAULT_WINDOW, System::nanoTime);
+    }
+
+    AdaptiveJwkCache(long minWeight, long maxWeight, Duration expiresIn, Duration window, LongSupplier ticker) {
+        Util.checkArgument(minWeight > 0, "Invalid min weight value '" + minWeight + "'. Must be a positive integer.");
+        Util.checkArgument(maxWeight >= minWeight, "The max weight must not be lower than the min weight");
+        Util.checkArgument(expiresIn != null && !expiresIn.isNegative(), "A non-negative expiration is required");
+        Util.checkArgument(window != null && !window.isNegative() && !window.isZero(), "A positive window is required");
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        this.expiresInNanos = expiresIn.toNanos();
+        this.windowNanos = window.toNanos();
+        this.ticker = ticker;
+        // start large so that the first window does not thrash, then shrink to the observed working set
+        this.capacity = maxWeight;
+        this.windowStart = ticker.getAsLong();
+    }
+
+    @Override
+    public Jwk get(String keyId, JwkProvider loader) throws JwkException {
+        Jwk jwk = getIfPresent(keyId);
+        if (jwk != null) {
+            return jwk;
+        }
+        misses.increment();
+        jwk = loader.get(keyId);
+        put(keyId, jwk, true);
+        observe(keyId, ticker.getAsLong());
+        return jwk;
+    }
+
+    @Override
+    public Jwk getIfPresent(String keyId) {
+        long now = ticker.getAsLong();
+        Entry entry = map.get(keyId);
+        if (entry == null || now - entry.loadedAt >= expiresInNanos) {
+            return null;
+        }
+        if (!entry.requested) {
+            entry.requested = true;
+        }
+        hits.increment();
+        observe(keyId, now);
+        return entry.jwk;
+    }
+
+    @Override
+    public void put(String keyId, Jwk jwk) {
+        put(keyId, jwk, false);
+    }
+
+    private void put(String keyId, Jwk jwk, boolean requested) {
+        long now = ticker.getAsLong();
+        Entry entry = new Entry(keyId, jwk, now);
+        synchronized (this) {
+            Entry previous = map.put(keyId, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+                unlink(previous);
+                if (now - previous.loadedAt >= expiresInNanos) {
+                    // replacing a key that is still fresh is not an eviction, but replacing an expired one is
+                    notifyRemoval(previous);
+                }
+                // a key that was requested keeps its place when it is replaced, as when a key set is reloaded
+                requested |= previous.used || previous.requested;
+            }
+            weight += entry.weight;
+            entry.used = requested;
+            if (requested) {
+                linkLast(entry);
+            } else {
+                linkFirst(entry);
+            }
+            evict(entry, now);
+        }
+    }
+
+    @Override
+    public void setRemovalListener(BiConsumer<String, Jwk> listener) {
+        this.removalListener = listener;
+    }
+
+    /**
+     * Returns the hit ratio and the current sizing of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), map.size(), weight, capacity, workingSetSize);
+        }
+    }
+
+    private void observe(String keyId, long now) {
+        Set<String> current = window;
+        if (!current.contains(keyId)) {
+            current.add(keyId);
+        }
+        if (now - windowStart >= windowNanos) {
+            adapt(now);
+        }
+    }
+
+    private synchronized void adapt(long now) {
+        if (now - windowStart < windowNanos) {
+            // another thread adapted already
+            return;
+        }
+        Set<String> observed = window;
+        window = ConcurrentHashMap.newKeySet();
+        windowStart = now;
+
+        long observedWeight = 0;
+        int known = 0;
+        for (String keyId : observed) {
+            Entry entry = map.get(keyId);
+            if (entry != null) {
+                observedWeight += entry.weight;
+                known++;
+            }
+        }
+        if (known > 0 && known < observed.size()) {
+            // kids observed but since evicted are assumed to weigh as much as the others
+            observedWeight += observedWeight / known * (observed.size() - known);
+        }
+        workingSetSize = observed.size();
+        capacity = Math.max(minWeight, Math.min(maxWeight, (long) Math.ceil(observedWeight * HEADROOM)));
+        removeExpired(now);
+        evict(null, now);
+    }
+
+    /**
+     * Removes the keys at the head of the eviction queue until the weight fits the capacity. Expired
+     * keys are removed as they are reached, while keys requested since they were queued are requeued
+     * at the tail. Must be called while holding the lock.
+     */
+    private void evict(Entry keep, long now) {
+        while (weight > capacity) {
+            Entry eldest = head == keep ? keep.next : head;
+            if (eldest == null) {
+                // a single key heavier than the capacity is still cached
+                return;
+            }
+            boolean expired = now - eldest.loadedAt >= expiresInNanos;
+            if (!expired && eldest.requested) {
+                eldest.requested = false;
+                eldest.used = true;
+                unlink(eldest);
+                linkLast(eldest);
+                continue;
+            }
+            remove(eldest);
+            if (!expired) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes every expired key. Must be called while holding the lock.
+     */
+    private void removeExpired(long now) {
+        Entry entry = head;
+        while (entry != null) {
+            Entry next = entry.next;
+            if (now - entry.loadedAt >= expiresInNanos) {
+                remove(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void remove(Entry entry) {
+        map.remove(entry.keyId, entry);
+        weight -= entry.weight;
+        unlink(entry);
+        notifyRemoval(entry);
+    }
+
+    private void notifyRemoval(Entry entry) {
+        BiConsumer<String, Jwk> listener = removalListener;
+        if (listener != null) {
+            listener.accept(entry.keyId, entry.jwk);
+        }
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.next = head;
+        if (head == null) {
+            tail = entry;
+        } else {
+            head.previous = entry;
+        }
+        head = entry;
+    }
+
+    private void linkLast(Entry entry) {
+        entry.previous = tail;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous == null) {
+            head = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private static final class Entry {
+        final String keyId;
+        final Jwk jwk;
+        final int weight;
+        final long loadedAt;
+        // set on hits, cleared when the key is requeued
+        volatile boolean requested;
+        // guarded by the lock, like the links
+        boolean used;
+        Entry previous;
+        Entry next;
+
+        Entry(String keyId, Jwk jwk, long loadedAt) {
+            this.keyId = keyId;
+            this.jwk = jwk;
+            this.weight = jwk.weight();
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Statistics of an {@link AdaptiveJwkCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final long weight;
+        private final long capacity;
+        private final int workingSetSize;
+
+        Stats(long hitCount, long missCount, long evictionCount, int size, long weight, long capacity, int workingSetSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.weight = weight;
+            this.capacity = capacity;
+            this.workingSetSize = workingSetSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return the ratio of lookups served from the cache, or 1.0 if there was no lookup
+         */
+        public double getHitRatio() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * @return the number of cached keys
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return the estimated size of the cached keys, in bytes
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the weight the cache currently allows, in bytes
+         */
+        public long getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @return the number of distinct kids served during the last observation window
+         */
+        public int getWorkingSetSize() {
+            return workingSetSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "hitRatio=" + getHitRatio() +
+                    ", size=" + size +
+                    ", weight=" + weight +
+                    ", capacity=" + capacity +
+                    ", workingSetSize=" + workingSetSize +
+                    '}';
+        }
+    }
+}
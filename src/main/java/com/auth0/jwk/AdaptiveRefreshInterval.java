@@ -0,0 +1,84 @@
+package com.auth0.jwk;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Learns how often a key set rotates and moves the refresh interval between two bounds accordingly.
+ *
+ * <p>Each fetched key set is reduced to a digest of its kids and key material. A fetch that finds the
+ * same digest as the previous one doubles the interval, up to the maximum, so that a key set stable
+ * for weeks is fetched rarely. A fetch that finds a change resets the interval to the minimum, since
+ * a rotation is usually followed by other changes, such as the removal of the previous key.</p>
+ */
+final class AdaptiveRefreshInterval {
+
+    private static final Comparator<Jwk> BY_KID = Comparator.comparing(Jwk::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final long minNanos;
+    private final long maxNanos;
+    private byte[] fingerprint;
+    private long currentNanos;
+    private long changes;
+
+    AdaptiveRefreshInterval(Duration min, Duration max) {
+        Util.checkArgument(min != null && !min.isNegative() && !min.isZero(), "A positive minimum refresh interval is required");
+        Util.checkArgument(max != null && max.compareTo(min) >= 0, "The maximum refresh interval must not be shorter than the minimum");
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.currentNanos = minNanos;
+    }
+
+    /**
+     * Observes a fetched key set and returns the interval after which it should be fetched again.
+     *
+     * @param keys the fetched keys
+     * @return the refresh interval in nanoseconds
+     */
+    synchronized long next(List<Jwk> keys) {
+        byte[] observed = fingerprint(keys);
+        if (fingerprint == null) {
+            currentNanos = minNanos;
+        } else if (Arrays.equals(fingerprint, observed)) {
+            currentNanos = currentNanos > maxNanos / 2 ? maxNanos : Math.min(maxNanos, currentNanos * 2);
+        } else {
+            currentNanos = minNanos;
+            changes++;
+        }
+        fingerprint = observed;
+        return currentNanos;
+    }
+
+    long getMinNanos() {
+        return minNanos;
+    }
+
+    synchronized Duration getCurrent() {
+        return Duration.ofNanos(currentNanos);
+    }
+
+    synchronized long getChanges() {
+        return changes;
+    }
+
+    @VisibleForTesting
+    static byte[] fingerprint(List<Jwk> keys) {
+        List<Jwk> sorted = new ArrayList<>(keys);
+        sorted.sort(BY_KID);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Jwk jwk : sorted) {
+                jwk.digest(digest);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Jwk provider that merges the keys of several sources, for example the JWKS urls of an old and a
+ * new identity provider during a migration.
+ *
+ * <p>All sources are fetched in parallel and their keys merged into a single kid index; when two
+ * sources publish the same kid, the source listed first wins. The index is refreshed whenever a kid
+ * is not found. A source that fails keeps contributing the keys of its last successful fetch, and the
+ * outcome of each source's last fetch is reported by {@link #getHealth()}.</p>
+ *
+ * <pre>{@code
+ * JwkProvider provider = new GuavaCachedJwkProvider(new AggregatingJwkProvider(Arrays.asList(
+ *     new UrlJwkProvider("https://old-idp.example.com"),
+ *     new UrlJwkProvider("https://new-idp.example.com"))));
+ * }</pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class AggregatingJwkProvider implements JwkSetProvider {
+
+    private final List<JwkSetProvider> sources;
+    private final Executor executor;
+    private final SourceHealth[] health;
+    private final List<List<Jwk>> sourceKeys;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a provider that merges the given sources, fetching them on a shared pool of daemon threads.
+     *
+     * @param sources the sources to merge, in order of precedence
+     */
+    public AggregatingJwkProvider(List<? extends JwkSetProvider> sources) {
+        this(sources, FetchExecutor.shared());
+    }
+
+    /**
+     * Creates a provider that merges the given sources, fetching them on the given executor.
+     *
+     * @param sources  the sources to merge, in order of precedence
+     * @param executor the executor used to fetch the sources in parallel
+     */
+    public AggregatingJwkProvider(List<? extends JwkSetProvider> sources, Executor executor) {
+        Util.checkArgument(sources != null && !sources.isEmpty(), "At least one source is required");
+        Util.checkArgument(executor != null, "A non-null executor is required");
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        this.executor = executor;
+        this.health = new SourceHealth[sources.size()];
+        this.sourceKeys = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            health[i] = new SourceHealth(this.sources.get(i), null, null, null, 0, 0, null);
+            sourceKeys.add(Collections.<Jwk>emptyList());
+        }
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            Jwk jwk = current.find(keyId);
+            if (jwk != null) {
+                return jwk;
+            }
+        }
+        Jwk jwk = refresh(current).find(keyId);
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found in any source with kid " + keyId, null);
+        }
+        return jwk;
+    }
+
+    /**
+     * Fetches every source in parallel and returns the merged keys.
+     *
+     * @return the merged keys
+     * @throws JwkException if no source has ever been fetched successfully
+     */
+    @Override
+    public List<Jwk> getAll() throws JwkException {
+        return refresh(snapshot).keys;
+    }
+
+    /**
+     * Returns the outcome of the last fetch of each source, in the order the sources were given.
+     *
+     * @return the health of each source
+     */
+    public List<SourceHealth> getHealth() {
+        synchronized (this) {
+            List<SourceHealth> result = new ArrayList<>(health.length);
+            Collections.addAll(result, health);
+            return Collections.unmodifiableList(result);
+        }
+    }
+
+    private synchronized Snapshot refresh(Snapshot seen) throws JwkException {
+        if (seen != snapshot && snapshot != null) {
+            // another thread refreshed while this one was waiting
+            return snapshot;
+        }
+
+        List<CompletableFuture<List<Jwk>>> fetches = new ArrayList<>(sources.size());
+        final long[] latencies = new long[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            final int index = i;
+            fetches.add(CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return sources.get(index).getAll();
+                } catch (JwkException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    latencies[index] = System.nanoTime() - start;
+                }
+            }, executor));
+        }
+
+        JwkException failure = null;
+        boolean anySuccess = false;
+        Instant now = Instant.now();
+        for (int i = 0; i < fetches.size(); i++) {
+            try {
+                List<Jwk> keys = fetches.get(i).join();
+                sourceKeys.set(i, keys);
+                health[i] = new SourceHealth(sources.get(i), now, health[i].lastFailure, null, 0, keys.size(),
+                        Duration.ofNanos(latencies[i]));
+                anySuccess = true;
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                JwkException error = cause instanceof JwkException ? (JwkException) cause :
+                        new SigningKeyNotFoundException("Failed to fetch source " + sources.get(i), cause);
+                if (failure == null) {
+                    failure = error;
+                }
+                SourceHealth previous = health[i];
+                health[i] = new SourceHealth(sources.get(i), previous.lastSuccess, now, error,
+                        previous.consecutiveFailures + 1, sourceKeys.get(i).size(), Duration.ofNanos(latencies[i]));
+            }
+        }
+
+        if (!anySuccess && snapshot == null) {
+            throw failure;
+        }
+        snapshot = new Snapshot(sourceKeys);
+        return snapshot;
+    }
+
+    private static final class Snapshot {
+        private final List<Jwk> keys;
+        private final Map<String, Jwk> byKid;
+
+        Snapshot(List<List<Jwk>> sourceKeys) {
+            List<Jwk> keys = new ArrayList<>();
+            Map<String, Jwk> byKid = new LinkedHashMap<>();
+            for (List<Jwk> jwks : sourceKeys) {
+                for (Jwk jwk : jwks) {
+                    if (jwk.getId() == null) {
+                        keys.add(jwk);
+                    } else if (!byKid.containsKey(jwk.getId())) {
+                        byKid.put(jwk.getId(), jwk);
+                        keys.add(jwk);
+                    }
+                }
+            }
+            this.keys = Collections.unmodifiableList(keys);
+            this.byKid = byKid;
+        }
+
+        Jwk find(String keyId) {
+            if (keyId == null) {
+                return keys.size() == 1 ? keys.get(0) : null;
+            }
+            return byKid.get(keyId);
+        }
+    }
+
+    /**
+     * Outcome of the last fetch of one source of an {@link AggregatingJwkProvider}.
+     */
+    public static final class SourceHealth {
+        private final JwkSetProvider source;
+        private final Instant lastSuccess;
+        private final Instant lastFailure;
+        private final JwkException lastError;
+        private final int consecutiveFailures;
+        private final int keyCount;
+        private final Duration lastLatency;
+
+        SourceHealth(JwkSetProvider source, Instant lastSuccess, Instant lastFailure, JwkException lastError, int consecutiveFailures, int keyCount, Duration lastLatency) {
+            this.source = source;
+            this.lastSuccess = lastSuccess;
+            this.lastFailure = lastFailure;
+            this.lastError = lastError;
+            this.consecutiveFailures = consecutiveFailures;
+            this.keyCount = keyCount;
+            this.lastLatency = lastLatency;
+        }
+
+        public JwkSetProvider getSource() {
+            return source;
+        }
+
+        /**
+         * @return when the source was last fetched successfully, or null if it never was
+         */
+        public Instant getLastSuccess() {
+            return lastSuccess;
+        }
+
+        /**
+         * @return when a fetch of the source last failed, or null if it never did
+         */
+        public Instant getLastFailure() {
+            return lastFailure;
+        }
+
+        /**
+         * @return the error of the last fetch, or null if it succeeded
+         */
+        public JwkException getLastError() {
+            return lastError;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        /**
+         * @return the number of keys the source currently contributes
+         */
+        public int getKeyCount() {
+            return keyCount;
+        }
+
+        /**
+         * @return how long the last fetch took, or null if the source was never fetched
+         */
+        public Duration getLastLatency() {
+            return lastLatency;
+        }
+
+        /**
+         * @return true if the last fetch of the source succeeded
+         */
+        public boolean isHealthy() {
+            return lastSuccess != null && consecutiveFailures == 0;
+        }
+    }
+}
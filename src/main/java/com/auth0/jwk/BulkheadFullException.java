@@ -0,0 +1,16 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a client limited by a {@link FetchBulkhead} when a fetch cannot start because too many
+ * fetches are in flight and the wait queue is full or the maximum wait elapsed. Providers report it
+ * as the cause of a {@link NetworkException}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BulkheadFullException extends IOException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,317 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Jwk provider that caches previously obtained Jwk in a {@link JwkCache}
+ * <br><br> When the fallback provider is a {@link JwkSetProvider}, a cache miss caches every key of the
+ * key set holding the kid, so that the other kids of the set are not missed later. The key set last
+ * fetched by the fallback provider is used when it has the kid, and the jwks is only fetched again
+ * when it does not. Caches that refresh their keys reload the whole key set.
+ * <br><br> When certificate expiry is enabled, the lifetime of a cached key with an x5c chain is also
+ * bounded by the validity of its certificate: the key is reloaded in the background shortly before
+ * the certificate expires, and reloaded before being returned once it has expired.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CachedJwkProvider implements JwkProvider {
+
+    @VisibleForTesting
+    static final String NULL_KID_KEY = "null-kid";
+
+    private final JwkProvider provider;
+    private final JwkCache cache;
+    private boolean bulkLoading;
+    private long refreshAheadMillis = -1;
+    private LongSupplier clock = System::currentTimeMillis;
+    // the reload deadlines of the cached keys with a certificate, by cache key, released as the cache evicts them
+    private final Map<String, CertificateDeadline> deadlines = new ConcurrentHashMap<>();
+    // the loader of the keys cached in bulk, reloading the whole key set
+    private final JwkProvider setLoader = this::reloadKeySet;
+
+    /**
+     * Creates a new cached provider
+     *
+     * @param provider fallback provider to use when jwk is not cached
+     * @param cache    the cache storing the jwks
+     */
+    public CachedJwkProvider(final JwkProvider provider, final JwkCache cache) {
+        Util.checkArgument(cache != null, "A non-null cache is required");
+        this.provider = provider;
+        this.cache = cache;
+        this.bulkLoading = provider instanceof JwkSetProvider;
+    }
+
+    /**
+     * Toggles caching every key of the fetched key set on a miss; only possible when the fallback
+     * provider is a {@link JwkSetProvider}.
+     *
+     * @param bulkLoading whether every key of a fetch should be cached
+     */
+    void setBulkLoading(boolean bulkLoading) {
+        this.bulkLoading = bulkLoading && provider instanceof JwkSetProvider;
+    }
+
+    /**
+     * Bounds the lifetime of each cached key by the validity of the first certificate of its x5c
+     * chain. A key is reloaded in the background once its certificate expires within the given amount
+     * of time, and reloaded before being returned once its certificate has expired. A key still
+     * published with an expired certificate is then kept until the cache expires it.
+     *
+     * @param refreshAhead how long before the certificate expires the key is reloaded, or null to
+     *                     ignore certificates
+     */
+    void setCertificateExpiry(Duration refreshAhead) {
+        this.refreshAheadMillis = refreshAhead == null ? -1 : refreshAhead.toMillis();
+        cache.setRemovalListener(refreshAhead == null ? null : this::forget);
+        if (refreshAhead == null) {
+            deadlines.clear();
+        }
+    }
+
+    @VisibleForTesting
+    void setCertificateExpiry(Duration refreshAhead, LongSupplier clock) {
+        setCertificateExpiry(refreshAhead);
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwk get(final String keyId) throws JwkException {
+        String cacheKey = keyId == null ? NULL_KID_KEY : keyId;
+        Jwk cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return refreshAheadMillis < 0 ? cached : checkCertificate(cacheKey, keyId, cached);
+        }
+        Jwk jwk = load(cacheKey, keyId);
+        if (refreshAheadMillis >= 0) {
+            track(cacheKey, jwk);
+        }
+        return jwk;
+    }
+
+    private Jwk load(final String cacheKey, final String keyId) throws JwkException {
+        if (!bulkLoading) {
+            return cache.get(cacheKey, loaderFor(keyId));
+        }
+        // the other keys are only cached once the load returns, as a cache may not be modified while loading
+        final AtomicReference<List<Jwk>> fetched = new AtomicReference<>();
+        Jwk jwk = null;
+        try {
+            jwk = cache.get(cacheKey, ignored -> {
+                List<Jwk> jwks = provider instanceof HoldingJwkSetProvider ?
+                        ((HoldingJwkSetProvider) provider).getAllFor(keyId) : ((JwkSetProvider) provider).getAll();
+                fetched.set(jwks);
+                return findInSet(jwks, keyId);
+            });
+        } finally {
+            List<Jwk> jwks = fetched.get();
+            if (jwks != null) {
+                putAll(jwks);
+                if (jwk != null) {
+                    // cache the requested key last, so that a small cache evicts the others first
+                    cache.put(cacheKey, jwk, loaderFor(keyId));
+                }
+            }
+        }
+        return jwk;
+    }
+
+    /**
+     * Returns the provider a cache reloads the given kid from: the whole key set when loading in bulk,
+     * and the kid alone otherwise.
+     */
+    private JwkProvider loaderFor(String keyId) {
+        if (bulkLoading) {
+            return setLoader;
+        }
+        return keyId == null ? ignored -> provider.get(null) : provider;
+    }
+
+    private Jwk reloadKeySet(String cacheKey) throws JwkException {
+        List<Jwk> jwks = ((JwkSetProvider) provider).getAll();
+        putAll(jwks);
+        return findInSet(jwks, NULL_KID_KEY.equals(cacheKey) ? null : cacheKey);
+    }
+
+    /**
+     * Finds the given kid in a fetched key set or, failing that, among the keys its provider still
+     * serves during the grace period after a refresh removed them.
+     */
+    private Jwk findInSet(List<Jwk> jwks, String keyId) throws SigningKeyNotFoundException {
+        try {
+            return find(jwks, keyId);
+        } catch (SigningKeyNotFoundException e) {
+            Jwk removed = keyId != null && provider instanceof HoldingJwkSetProvider ?
+                    ((HoldingJwkSetProvider) provider).getRemoved(keyId) : null;
+            if (removed == null) {
+                throw e;
+            }
+            return removed;
+        }
+    }
+
+    private static Jwk find(List<Jwk> jwks, String keyId) throws SigningKeyNotFoundException {
+        if (keyId == null && jwks.size() == 1) {
+            return jwks.get(0);
+        }
+        if (keyId != null) {
+            for (Jwk jwk : jwks) {
+                if (keyId.equals(jwk.getId())) {
+                    return jwk;
+                }
+            }
+        }
+        throw new SigningKeyNotFoundException("No key found with kid " + keyId, null);
+    }
+
+    private Jwk checkCertificate(String cacheKey, String keyId, Jwk cached) throws JwkException {
+        CertificateDeadline deadline = deadlines.get(cacheKey);
+        if (deadline == null || deadline.jwk != cached) {
+            // loaded before certificate expiry was enabled, or by the cache itself
+            deadline = track(cacheKey, cached);
+        }
+        if (deadline == null) {
+            return cached;
+        }
+        long now = clock.getAsLong();
+        if (now < deadline.refreshAt) {
+            return cached;
+        }
+        if (now < deadline.expiresAt) {
+            reloadInBackground(cacheKey, keyId, deadline);
+            return cached;
+        }
+        return reload(cacheKey, keyId, cached);
+    }
+
+    /**
+     * Records when the given key must be reloaded, or nothing if it has no certificate or if its
+     * certificate already expired, so that a key published with an expired certificate is not reloaded
+     * on every lookup. Likewise, a key loaded when its certificate is about to expire is only reloaded
+     * once it has expired.
+     */
+    private CertificateDeadline track(String cacheKey, Jwk jwk) {
+        Instant notAfter = jwk.getCertificateNotAfter();
+        long now = clock.getAsLong();
+        if (notAfter == null || notAfter.toEpochMilli() <= now) {
+            deadlines.remove(cacheKey);
+            return null;
+        }
+        long expiresAt = notAfter.toEpochMilli();
+        long refreshAt = expiresAt - refreshAheadMillis > now ? expiresAt - refreshAheadMillis : expiresAt;
+        CertificateDeadline deadline = new CertificateDeadline(jwk, refreshAt, expiresAt);
+        deadlines.put(cacheKey, deadline);
+        return deadline;
+    }
+
+    /**
+     * Releases the deadline of a key evicted from the cache, unless the key was reloaded meanwhile.
+     */
+    private void forget(String cacheKey, Jwk jwk) {
+        CertificateDeadline deadline = deadlines.get(cacheKey);
+        if (deadline != null && deadline.jwk == jwk) {
+            deadlines.remove(cacheKey, deadline);
+        }
+    }
+
+    private synchronized Jwk reload(String cacheKey, String keyId, Jwk expired) throws JwkException {
+        Jwk current = cache.getIfPresent(cacheKey);
+        if (current != null && current != expired) {
+            // another thread reloaded it while this one was waiting
+            return current;
+        }
+        Jwk jwk;
+        if (bulkLoading) {
+            List<Jwk> jwks = ((JwkSetProvider) provider).getAll();
+            putAll(jwks);
+            jwk = findInSet(jwks, keyId);
+        } else {
+            jwk = provider.get(keyId);
+        }
+        cache.put(cacheKey, jwk, loaderFor(keyId));
+        track(cacheKey, jwk);
+        return jwk;
+    }
+
+    private void reloadInBackground(final String cacheKey, final String keyId, final CertificateDeadline deadline) {
+        if (!deadline.reloading.compareAndSet(false, true)) {
+            return;
+        }
+        FetchExecutor.shared().execute(FetchExecutor.background(() -> {
+            try {
+                reload(cacheKey, keyId, deadline.jwk);
+            } catch (JwkException | RuntimeException e) {
+                // the key is served until its certificate expires; the next lookup tries again
+                deadline.reloading.set(false);
+            }
+        }));
+    }
+
+    /**
+     * Adds the given keys to the cache. When a single key is given, it is also cached as the key to
+     * use for tokens without a kid.
+     *
+     * @param jwks the keys to cache
+     */
+    void putAll(List<Jwk> jwks) {
+        Map<String, Jwk> keys = new LinkedHashMap<>();
+        for (Jwk jwk : jwks) {
+            if (jwk.getId() != null) {
+                keys.put(jwk.getId(), jwk);
+            }
+        }
+        if (jwks.size() == 1) {
+            keys.put(NULL_KID_KEY, jwks.get(0));
+        }
+        if (refreshAheadMillis >= 0) {
+            // tracked first, so that the deadlines of the keys the cache evicts right away are released
+            for (Map.Entry<String, Jwk> entry : keys.entrySet()) {
+                track(entry.getKey(), entry.getValue());
+            }
+        }
+        if (bulkLoading) {
+            // every key is reloaded with the whole set, so the cache can take them in a single batch
+            cache.putAll(keys, setLoader);
+        } else {
+            for (Map.Entry<String, Jwk> entry : keys.entrySet()) {
+                String keyId = NULL_KID_KEY.equals(entry.getKey()) ? null : entry.getKey();
+                cache.put(entry.getKey(), entry.getValue(), loaderFor(keyId));
+            }
+        }
+    }
+
+    @VisibleForTesting
+    JwkProvider getBaseProvider() {
+        return provider;
+    }
+
+    @VisibleForTesting
+    int trackedDeadlines() {
+        return deadlines.size();
+    }
+
+    @VisibleForTesting
+    JwkCache getCache() {
+        return cache;
+    }
+
+    private static final class CertificateDeadline {
+        final Jwk jwk;
+        final long refreshAt;
+        final long expiresAt;
+        final AtomicBoolean reloading = new AtomicBoolean();
+
+        CertificateDeadline(Jwk jwk, long refreshAt, long expiresAt) {
+            this.jwk = jwk;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.auth0.jwk;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link JwkCache} backed by a Caffeine cache.
+ *
+ * <p>Compared to {@link GuavaJwkCache}, reads do not contend on segment locks and the size bound uses
+ * Caffeine's frequency-based admission. A refresh interval can also be given: a key read after it has
+ * been cached for longer than the interval is still returned immediately, while a fresh copy is loaded
+ * in the background; if that load fails, the cached key keeps being served until it expires.</p>
+ *
+ * <p>Caffeine is not a dependency of this library; add {@code com.github.ben-manes.caffeine:caffeine}
+ * to the application to use this cache.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class CaffeineJwkCache implements JwkCache {
+
+    private final Cache<String, Entry> cache;
+    private final long refreshAfterNanos;
+    private final Executor executor;
+    private volatile BiConsumer<String, Jwk> removalListener;
+
+    /**
+     * Creates a new cache specifying size and ttl, without background refresh
+     *
+     * @param size      number of jwk to cache
+     * @param expiresIn amount of time a jwk will live in the cache
+     */
+    public CaffeineJwkCache(long size, Duration expiresIn) {
+        this(size, expiresIn, null);
+    }
+
+    /**
+     * Creates a new cache specifying size, ttl and refresh interval. Refreshes run on a shared pool of
+     * daemon threads.
+     *
+     * @param size         number of jwk to cache
+     * @param expiresIn    amount of time a jwk will live in the cache
+     * @param refreshAfter amount of time after which a jwk that is read is reloaded in the background,
+     *                     or null to never refresh
+     */
+    public CaffeineJwkCache(long size, Duration expiresIn, Duration refreshAfter) {
+        this(size, expiresIn, refreshAfter, FetchExecutor.shared());
+    }
+
+    /**
+     * Creates a new cache specifying size, ttl, refresh interval and the executor running refreshes.
+     *
+     * @param size         number of jwk to cache
+     * @param expiresIn    amount of time a jwk will live in the cache
+     * @param refreshAfter amount of time after which a jwk that is read is reloaded in the background,
+     *                     or null to never refresh
+     * @param executor     the executor used to refresh keys
+     */
+    public CaffeineJwkCache(long size, Duration expiresIn, Duration refreshAfter, Executor executor) {
+        Util.checkArgument(expiresIn != null, "A non-null expiration is required");
+        Util.checkArgument(refreshAfter == null || !refreshAfter.isNegative(), "The refresh interval must not be negative");
+        Util.checkArgument(executor != null, "A non-null executor is required");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(expiresIn.toMillis(), TimeUnit.MILLISECONDS)
+                .executor(executor)
+                .removalListener((String keyId, Entry entry, RemovalCause cause) -> {
+                    BiConsumer<String, Jwk> listener = removalListener;
+                    if (listener != null && cause.wasEvicted()) {
+                        listener.accept(keyId, entry.jwk);
+                    }
+                })
+                .build();
+        this.refreshAfterNanos = refreshAfter == null ? -1 : refreshAfter.toNanos();
+        this.executor = executor;
+    }
+
+    @Override
+    public Jwk get(final String keyId, final JwkProvider loader) throws JwkException {
+        Entry entry = cache.getIfPresent(keyId);
+        if (entry == null) {
+            try {
+                // concurrent misses of the same kid wait for a single load
+                entry = cache.get(keyId, key -> load(key, loader));
+            } catch (LoadException e) {
+                throw e.getCause();
+            }
+        } else if (needsRefresh(entry)) {
+            refresh(keyId, entry, loader);
+        }
+        return entry.jwk;
+    }
+
+    @Override
+    public Jwk getIfPresent(String keyId) {
+        Entry entry = cache.getIfPresent(keyId);
+        if (entry == null) {
+            return null;
+        }
+        if (needsRefresh(entry) && entry.loader != null) {
+            refresh(keyId, entry, entry.loader);
+        }
+        return entry.jwk;
+    }
+
+    private boolean needsRefresh(Entry entry) {
+        return refreshAfterNanos >= 0 && System.nanoTime() - entry.loadedAt >= refreshAfterNanos;
+    }
+
+    @Override
+    public void put(String keyId, Jwk jwk) {
+        cache.put(keyId, new Entry(jwk, null));
+    }
+
+    @Override
+    public void put(String keyId, Jwk jwk, JwkProvider loader) {
+        cache.put(keyId, new Entry(jwk, loader));
+    }
+
+    @Override
+    public void setRemovalListener(BiConsumer<String, Jwk> listener) {
+        this.removalListener = listener;
+    }
+
+    private void refresh(final String keyId, final Entry entry, final JwkProvider loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(FetchExecutor.background(() -> {
+            try {
+                cache.asMap().replace(keyId, entry, new Entry(loader.get(keyId), loader));
+            } catch (JwkException | RuntimeException e) {
+                // keep serving the cached key; the next read tries again
+                entry.refreshing.set(false);
+            }
+        }));
+    }
+
+    private static Entry load(String keyId, JwkProvider loader) {
+        try {
+            return new Entry(loader.get(keyId), loader);
+        } catch (JwkException e) {
+            throw new LoadException(e);
+        }
+    }
+
+    private static final class Entry {
+        final Jwk jwk;
+        // the provider the key was loaded from, used to refresh it on reads through getIfPresent
+        final JwkProvider loader;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Jwk jwk, JwkProvider loader) {
+            this.jwk = jwk;
+            this.loader = loader;
+            this.loadedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Carries a {@link JwkException} out of a Caffeine mapping function, which cannot throw checked exceptions.
+     */
+    private static final class LoadException extends RuntimeException {
+        LoadException(JwkException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JwkException getCause() {
+            return (JwkException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link JwkCache} backed by a {@link ConcurrentHashMap}.
+ *
+ * <p>Reads are lock-free and allocate nothing. Expired keys are dropped when read or replaced, and when the size
+ * bound is exceeded the key that was cached the longest is evicted. Concurrent misses of the same kid
+ * are not coalesced, so this cache is best placed in front of a rate-limited provider, as done by
+ * {@link JwkProviderBuilder}. Since every eviction scans the map, it is meant for the handful of keys
+ * usually published in a jwks rather than for large sizes.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ConcurrentMapJwkCache implements JwkCache {
+
+    private final ConcurrentHashMap<String, Entry> map;
+    private final long size;
+    private final long expiresInNanos;
+    private volatile BiConsumer<String, Jwk> removalListener;
+
+    /**
+     * Creates a new cache specifying size and ttl
+     *
+     * @param size      number of jwk to cache
+     * @param expiresIn amount of time a jwk will live in the cache
+     */
+    public ConcurrentMapJwkCache(long size, Duration expiresIn) {
+        Util.checkArgument(size > 0, "Invalid cache size value '" + size + "'. Must be a positive integer.");
+        Util.checkArgument(expiresIn != null && !expiresIn.isNegative(), "A non-negative expiration is required");
+        this.map = new ConcurrentHashMap<>();
+        this.size = size;
+        this.expiresInNanos = expiresIn.toNanos();
+    }
+
+    @Override
+    public Jwk get(String keyId, JwkProvider loader) throws JwkException {
+        Jwk jwk = getIfPresent(keyId);
+        if (jwk != null) {
+            return jwk;
+        }
+        jwk = loader.get(keyId);
+        put(keyId, jwk);
+        return jwk;
+    }
+
+    @Override
+    public Jwk getIfPresent(String keyId) {
+        Entry entry = map.get(keyId);
+        if (entry == null) {
+            return null;
+        }
+        if (!isExpired(entry)) {
+            return entry.jwk;
+        }
+        if (map.remove(keyId, entry)) {
+            notifyRemoval(keyId, entry);
+        }
+        return null;
+    }
+
+    @Override
+    public void put(String keyId, Jwk jwk) {
+        Entry previous = map.put(keyId, new Entry(jwk));
+        if (previous != null && isExpired(previous)) {
+            // replacing a key that is still fresh is not an eviction, but replacing an expired one is
+            notifyRemoval(keyId, previous);
+        }
+        while (map.size() > size) {
+            evictOldest();
+        }
+    }
+
+    @Override
+    public void setRemovalListener(BiConsumer<String, Jwk> listener) {
+        this.removalListener = listener;
+    }
+
+    @VisibleForTesting
+    int size() {
+        return map.size();
+    }
+
+    private void evictOldest() {
+        Map.Entry<String, Entry> oldest = null;
+        for (Map.Entry<String, Entry> candidate : map.entrySet()) {
+            if (oldest == null || candidate.getValue().loadedAt - oldest.getValue().loadedAt < 0) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null && map.remove(oldest.getKey(), oldest.getValue())) {
+            notifyRemoval(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.nanoTime() - entry.loadedAt >= expiresInNanos;
+    }
+
+    private void notifyRemoval(String keyId, Entry entry) {
+        BiConsumer<String, Jwk> listener = removalListener;
+        if (listener != null) {
+            listener.accept(keyId, entry.jwk);
+        }
+    }
+
+    private static final class Entry {
+        final Jwk jwk;
+        final long loadedAt;
+
+        Entry(Jwk jwk) {
+            this.jwk = jwk;
+            this.loadedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of jwks fetches in flight across every provider it is given to, so that a key
+ * rotation refreshing many providers at once cannot tie up all the threads serving requests.
+ *
+ * <p>A fetch starts right away while fewer than the maximum number of fetches are in flight. Beyond
+ * that, it waits in a bounded queue for at most the maximum wait, and fails with a
+ * {@link BulkheadFullException} if the queue is full or the wait elapses. Fetches that a request is
+ * waiting on are dequeued before background refreshes, which are only needed ahead of expiration;
+ * within each group, fetches start in arrival order.</p>
+ *
+ * @see JwkProviderBuilder#bulkhead(FetchBulkhead)
+ */
+@SuppressWarnings("WeakerAccess")
+public class FetchBulkhead {
+
+    private static final Comparator<Waiter> PRIORITY = Comparator
+            .comparing((Waiter waiter) -> waiter.background)
+            .thenComparingLong(waiter -> waiter.sequence);
+
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(PRIORITY);
+    private int inFlight;
+    private long sequence;
+    private long rejected;
+
+    /**
+     * Creates a new bulkhead.
+     *
+     * @param maxConcurrent maximum number of fetches in flight
+     * @param maxWaiting    maximum number of fetches waiting to start
+     * @param maxWait       maximum amount of time a fetch waits to start
+     */
+    public FetchBulkhead(int maxConcurrent, int maxWaiting, Duration maxWait) {
+        Util.checkArgument(maxConcurrent > 0, "Invalid max concurrent value '" + maxConcurrent + "'. Must be a positive integer.");
+        Util.checkArgument(maxWaiting >= 0, "Invalid max waiting value '" + maxWaiting + "'. Must be a non-negative integer.");
+        Util.checkArgument(maxWait != null && !maxWait.isNegative(), "A non-negative max wait is required");
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Returns a client whose fetches go through this bulkhead.
+     *
+     * @param client the client fetching the jwks
+     * @return the limited client
+     */
+    public JwksHttpClient limiting(final JwksHttpClient client) {
+        Util.checkArgument(client != null, "A non-null client is required");
+        return new JwksHttpClient() {
+            @Override
+            public JwksHttpResponse fetch(URL url) throws IOException {
+                acquire(FetchExecutor.isBackground());
+                try {
+                    return client.fetch(url);
+                } finally {
+                    release();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the number of fetches in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of fetches waiting to start
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of fetches rejected so far
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void acquire(boolean background) throws BulkheadFullException {
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrent && queue.isEmpty()) {
+                inFlight++;
+                return;
+            }
+            if (queue.size() >= maxWaiting) {
+                rejected++;
+                throw new BulkheadFullException("Too many jwks fetches in flight");
+            }
+            Waiter waiter = new Waiter(lock.newCondition(), background, sequence++);
+            queue.add(waiter);
+            long remaining = maxWaitNanos;
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!waiter.granted) {
+                queue.remove(waiter);
+                rejected++;
+                throw new BulkheadFullException("Timed out waiting for a jwks fetch to complete after "
+                        + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            Waiter next = queue.poll();
+            if (next != null) {
+                // the permit is handed over, so inFlight does not change
+                next.granted = true;
+                next.condition.signal();
+            } else {
+                inFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        final Condition condition;
+        final boolean background;
+        final long sequence;
+        boolean granted;
+
+        Waiter(Condition condition, boolean background, long sequence) {
+            this.condition = condition;
+            this.background = background;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.auth0.jwk;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pool of daemon threads shared by the providers that fetch jwks in the background or in parallel.
+ */
+final class FetchExecutor {
+
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(new DaemonThreadFactory("jwks-fetch"));
+    private static final ThreadLocal<Boolean> BACKGROUND = new ThreadLocal<>();
+
+    private FetchExecutor() {
+    }
+
+    static ExecutorService shared() {
+        return SHARED;
+    }
+
+    /**
+     * Wraps a task that no request is waiting on, such as a refresh ahead of expiration, so that its
+     * fetches yield to the others in a {@link FetchBulkhead}.
+     */
+    static Runnable background(final Runnable task) {
+        return () -> {
+            BACKGROUND.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                BACKGROUND.remove();
+            }
+        };
+    }
+
+    /**
+     * @return whether the current thread runs a task wrapped by {@link #background(Runnable)}
+     */
+    static boolean isBackground() {
+        return BACKGROUND.get() != null;
+    }
+}
@@ -0,0 +1,264 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jwk provider that loads them from a local file, for example one kept up to date by a sidecar.
+ *
+ * <p>The file is parsed once and then watched for changes; when it is modified or replaced, the new
+ * keys are swapped in atomically, and a file that cannot be parsed leaves the previous keys in place.
+ * The provider never performs network I/O. If the file does not exist yet, the provider starts
+ * without keys and picks the file up as soon as it is created.</p>
+ *
+ * <p>Call {@link #close()} to stop watching the file.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class FileJwkProvider implements JwkSetProvider, AutoCloseable {
+
+    private final Path path;
+    private final String source;
+    private final JwksParser parser;
+    private final WatchService watchService;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a provider that loads from the given file and watches it for changes.
+     *
+     * @param path the file holding the jwks
+     */
+    public FileJwkProvider(Path path) {
+        this(path, null, true);
+    }
+
+    /**
+     * Creates a provider that loads from the given file.
+     *
+     * @param path   the file holding the jwks
+     * @param parser the parser used to read the jwks (null for the default parser)
+     * @param watch  whether the file should be watched and reloaded when it changes
+     */
+    public FileJwkProvider(Path path, JwksParser parser, boolean watch) {
+        Util.checkArgument(path != null, "A non-null path is required");
+        this.path = path.toAbsolutePath();
+        this.source = this.path.toString();
+        this.parser = parser != null ? parser : UrlJwkProvider.defaultParser();
+        this.snapshot = Snapshot.EMPTY;
+        try {
+            reload();
+        } catch (SigningKeyNotFoundException ignored) {
+            // the file may not have been written yet; it is loaded when it appears
+        }
+        this.watchService = watch ? startWatching() : null;
+    }
+
+    private FileJwkProvider(String resource, List<Jwk> jwks) {
+        this.path = null;
+        this.source = "classpath:" + resource;
+        this.parser = null;
+        this.watchService = null;
+        this.snapshot = new Snapshot(jwks, null);
+    }
+
+    /**
+     * Creates a provider that loads once from a classpath resource. Resources are not watched.
+     *
+     * @param resource the name of the resource holding the jwks, as given to {@link ClassLoader#getResourceAsStream(String)}
+     * @param parser   the parser used to read the jwks (null for the default parser)
+     * @return the provider
+     * @throws SigningKeyNotFoundException if the resource cannot be found or parsed
+     */
+    public static FileJwkProvider fromClasspath(String resource, JwksParser parser) throws SigningKeyNotFoundException {
+        Util.checkArgument(!Util.isNullOrEmpty(resource), "A resource name is required");
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = FileJwkProvider.class.getClassLoader();
+        }
+        try (InputStream in = loader.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new SigningKeyNotFoundException("Cannot find jwks resource " + resource, null);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            return new FileJwkProvider(resource, parse(parser != null ? parser : UrlJwkProvider.defaultParser(), json, "classpath:" + resource));
+        } catch (IOException e) {
+            throw new SigningKeyNotFoundException("Cannot read jwks resource " + resource, e);
+        }
+    }
+
+    /**
+     * Reads the file again and returns its keys.
+     *
+     * @return the keys of the file
+     * @throws SigningKeyNotFoundException if the file cannot be read or has no keys
+     */
+    @Override
+    public List<Jwk> getAll() throws SigningKeyNotFoundException {
+        if (path == null) {
+            return snapshot.keys;
+        }
+        return reload();
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        Snapshot current = snapshot;
+        Jwk jwk = current.find(keyId);
+        if (jwk == null && path != null && current.isStale(lastModified())) {
+            // the watcher may not have caught up yet
+            reload();
+            jwk = snapshot.find(keyId);
+        }
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found in " + source + " with kid " + keyId, null);
+        }
+        return jwk;
+    }
+
+    /**
+     * Stops watching the file. The keys loaded so far remain available.
+     */
+    @Override
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private synchronized List<Jwk> reload() throws SigningKeyNotFoundException {
+        FileTime modified = lastModified();
+        String json;
+        try {
+            json = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SigningKeyNotFoundException("Cannot read jwks from file " + source, e);
+        }
+        List<Jwk> jwks = parse(parser, json, source);
+        snapshot = new Snapshot(jwks, modified);
+        return jwks;
+    }
+
+    private static List<Jwk> parse(JwksParser parser, String json, String source) throws SigningKeyNotFoundException {
+        List<Map<String, Object>> keys;
+        try {
+            keys = parser.parseKeys(json);
+        } catch (IOException e) {
+            throw new SigningKeyNotFoundException("Cannot parse jwks from " + source, e);
+        }
+        if (keys == null || keys.isEmpty()) {
+            throw new SigningKeyNotFoundException("No keys found in " + source, null);
+        }
+        List<Jwk> jwks = new ArrayList<>(keys.size());
+        try {
+            for (Map<String, Object> values : keys) {
+                jwks.add(Jwk.fromValues(values));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SigningKeyNotFoundException("Failed to parse jwk from json", e);
+        }
+        return Collections.unmodifiableList(jwks);
+    }
+
+    private FileTime lastModified() {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private WatchService startWatching() {
+        Path directory = path.getParent();
+        WatchService service;
+        try {
+            service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            // without a watcher, changes are still picked up when an unknown kid is requested
+            return null;
+        }
+        Thread thread = new DaemonThreadFactory("jwks-file-watch").newThread(() -> watch(service));
+        thread.start();
+        return service;
+    }
+
+    private void watch(WatchService service) {
+        Path fileName = path.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (SigningKeyNotFoundException ignored) {
+                        // keep serving the previous keys until a valid file is written
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // the provider was closed
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Collections.<Jwk>emptyList(), null);
+
+        final List<Jwk> keys;
+        final FileTime modified;
+
+        Snapshot(List<Jwk> keys, FileTime modified) {
+            this.keys = keys;
+            this.modified = modified;
+        }
+
+        Jwk find(String keyId) {
+            if (keyId == null) {
+                return keys.size() == 1 ? keys.get(0) : null;
+            }
+            for (Jwk jwk : keys) {
+                if (keyId.equals(jwk.getId())) {
+                    return jwk;
+                }
+            }
+            return null;
+        }
+
+        boolean isStale(FileTime current) {
+            return current != null && !current.equals(modified);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.auth0.jwk;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link JwkCache} backed by a Google Guava cache. This is the cache used by default.
+ *
+ * <p>Hits are served from an immutable snapshot of the cached keys, published each time keys are
+ * loaded or put, so that a hit neither allocates nor goes through the segments of the Guava cache.
+ * The Guava cache is used on misses, to coalesce concurrent loads and to bound the size. To keep its
+ * least recently used eviction, a hit records the access in the Guava cache at most once per second
+ * for each key, so the eviction order is accurate to about a second.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class GuavaJwkCache implements JwkCache {
+
+    private static final long TOUCH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<String, Jwk> cache;
+    private final long expiresInNanos;
+    private final Ticker ticker;
+    private volatile Map<String, Entry> snapshot = Collections.emptyMap();
+    private volatile BiConsumer<String, Jwk> removalListener;
+
+    /**
+     * Creates a new cache specifying size and ttl
+     *
+     * @param size        number of jwk to cache
+     * @param expiresIn   amount of time a jwk will live in the cache
+     * @param expiresUnit unit of the expiresIn parameter
+     */
+    public GuavaJwkCache(long size, long expiresIn, TimeUnit expiresUnit) {
+        this(size, expiresIn, expiresUnit, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new cache specifying size and ttl
+     *
+     * @param size      number of jwk to cache
+     * @param expiresIn amount of time a jwk will live in the cache
+     */
+    public GuavaJwkCache(long size, Duration expiresIn) {
+        this(size, expiresIn.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @VisibleForTesting
+    GuavaJwkCache(long size, long expiresIn, TimeUnit expiresUnit, Ticker ticker) {
+        RemovalListener<String, Jwk> listener = notification -> {
+            BiConsumer<String, Jwk> removalListener = this.removalListener;
+            if (removalListener != null && notification.wasEvicted()) {
+                removalListener.accept(notification.getKey(), notification.getValue());
+            }
+        };
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                // configure using timeunit; see https://github.com/auth0/jwks-rsa-java/issues/136
+                .expireAfterWrite(expiresIn, expiresUnit)
+                .ticker(ticker)
+                .removalListener(listener)
+                .build();
+        // bounded so that expiration times computed from the ticker cannot overflow
+        this.expiresInNanos = Math.min(expiresUnit.toNanos(expiresIn), Long.MAX_VALUE / 2);
+        this.ticker = ticker;
+    }
+
+    @Override
+    public Jwk get(final String keyId, final JwkProvider loader) throws JwkException {
+        Jwk jwk = getIfPresent(keyId);
+        if (jwk != null) {
+            return jwk;
+        }
+        final boolean[] loaded = {false};
+        final long[] loadedAt = {0};
+        try {
+            jwk = cache.get(keyId, () -> {
+                loaded[0] = true;
+                loadedAt[0] = ticker.read();
+                return loader.get(keyId);
+            });
+        } catch (ExecutionException e) {
+            // throw the proper exception directly, see https://github.com/auth0/jwks-rsa-java/issues/165
+            // cause should always be JwkException, but check just to be safe
+            if (e.getCause() instanceof JwkException) {
+                throw (JwkException) e.getCause();
+            }
+            // If somehow cause is not JwkException, just wrap
+            throw new JwkException("Unable to obtain key with kid " + keyId, e);
+        }
+        if (loaded[0]) {
+            // only publish keys loaded here, whose expiration is known
+            publish(Collections.singletonMap(keyId, jwk), loadedAt[0]);
+        }
+        return jwk;
+    }
+
+    @Override
+    public Jwk getIfPresent(String keyId) {
+        Entry entry = snapshot.get(keyId);
+        if (entry == null) {
+            return null;
+        }
+        long now = ticker.read();
+        if (now - entry.expiresAt >= 0) {
+            return null;
+        }
+        if (now - entry.touchedAt >= TOUCH_INTERVAL_NANOS) {
+            // record the access for the eviction order of the Guava cache
+            entry.touchedAt = now;
+            cache.getIfPresent(keyId);
+        }
+        return entry.jwk;
+    }
+
+    @Override
+    public void put(String keyId, Jwk jwk) {
+        long now = ticker.read();
+        cache.put(keyId, jwk);
+        publish(Collections.singletonMap(keyId, jwk), now);
+    }
+
+    /**
+     * Caches every given key and publishes them in a single snapshot.
+     */
+    @Override
+    public void putAll(Map<String, Jwk> jwks, JwkProvider loader) {
+        long now = ticker.read();
+        cache.putAll(jwks);
+        publish(jwks, now);
+    }
+
+    @Override
+    public void setRemovalListener(BiConsumer<String, Jwk> listener) {
+        this.removalListener = listener;
+    }
+
+    private synchronized void publish(Map<String, Jwk> jwks, long loadedAt) {
+        Map<String, Entry> current = snapshot;
+        Map<String, Entry> next = new HashMap<>();
+        long now = ticker.read();
+        for (Map.Entry<String, Entry> entry : current.entrySet()) {
+            // drop the keys that expired or were evicted from the Guava cache
+            if (now - entry.getValue().expiresAt < 0 && cache.asMap().containsKey(entry.getKey())) {
+                next.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Jwk> entry : jwks.entrySet()) {
+            // a key evicted while putting the others is not published
+            if (cache.asMap().containsKey(entry.getKey())) {
+                next.put(entry.getKey(), new Entry(entry.getValue(), loadedAt, loadedAt + expiresInNanos));
+            }
+        }
+        snapshot = next;
+    }
+
+    private static final class Entry {
+        final Jwk jwk;
+        final long expiresAt;
+        volatile long touchedAt;
+
+        Entry(Jwk jwk, long loadedAt, long expiresAt) {
+            this.jwk = jwk;
+            this.touchedAt = loadedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwksHttpClient} that fetches the jwks from several equivalent mirrors, such as regional
+ * hostnames or a CDN publishing the same document.
+ *
+ * <p>The fastest known mirror is requested first. If it has not answered after the hedge delay, the
+ * next mirror is requested as well, and so on; the first successful response wins. A mirror that
+ * fails is skipped over immediately. The latency of every mirror is tracked so that the order adapts
+ * to the observed performance. When no hedge delay is configured, the 95th percentile of the observed
+ * latency of the mirror being waited on is used.</p>
+ *
+ * <p>The url given to {@link #fetch(URL)} is treated as one of the mirrors, so this client can be
+ * used with any provider.</p>
+ *
+ * @see JwkProviderBuilder#mirrors(List, Duration)
+ */
+@SuppressWarnings("WeakerAccess")
+public class HedgingJwksHttpClient implements JwksHttpClient {
+
+    private static final long DEFAULT_HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MIN_HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int MIN_SAMPLES = 8;
+
+    private final JwksHttpClient delegate;
+    private final List<Mirror> mirrors;
+    private final Duration hedgeDelay;
+    private final Executor executor;
+
+    /**
+     * Creates a hedging client.
+     *
+     * @param delegate   the client used to fetch each mirror
+     * @param mirrors    the urls publishing the same jwks
+     * @param hedgeDelay how long to wait for a mirror before also requesting the next one, or null to
+     *                   learn it from the observed latency
+     */
+    public HedgingJwksHttpClient(JwksHttpClient delegate, List<URL> mirrors, Duration hedgeDelay) {
+        this(delegate, mirrors, hedgeDelay, FetchExecutor.shared());
+    }
+
+    HedgingJwksHttpClient(JwksHttpClient delegate, List<URL> mirrors, Duration hedgeDelay, Executor executor) {
+        Util.checkArgument(delegate != null, "A non-null delegate client is required");
+        Util.checkArgument(mirrors != null && !mirrors.isEmpty(), "At least one mirror is required");
+        Util.checkArgument(hedgeDelay == null || !hedgeDelay.isNegative(), "The hedge delay must not be negative");
+        this.delegate = delegate;
+        this.hedgeDelay = hedgeDelay;
+        this.executor = executor;
+        List<Mirror> list = new ArrayList<>(mirrors.size());
+        for (URL mirror : mirrors) {
+            list.add(new Mirror(mirror, list.size()));
+        }
+        this.mirrors = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public JwksHttpResponse fetch(URL url) throws IOException {
+        List<Mirror> ordered = orderedMirrors(url);
+        CompletionService<JwksHttpResponse> completion = new ExecutorCompletionService<>(executor);
+        List<Future<JwksHttpResponse>> started = new ArrayList<>(ordered.size());
+        int next = 0;
+        int pending = 0;
+        IOException failure = null;
+        try {
+            while (next < ordered.size() || pending > 0) {
+                Future<JwksHttpResponse> done;
+                if (next < ordered.size()) {
+                    Mirror mirror = ordered.get(next++);
+                    started.add(completion.submit(() -> mirror.fetch(delegate)));
+                    pending++;
+                    done = next < ordered.size() ?
+                            completion.poll(hedgeDelayNanos(mirror), TimeUnit.NANOSECONDS) : completion.take();
+                } else {
+                    done = completion.take();
+                }
+                if (done == null) {
+                    // hedge: the mirror is slow, also request the next one
+                    continue;
+                }
+                pending--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    failure = asIOException(e.getCause(), failure);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching jwks from mirrors", e);
+        } finally {
+            // let requests in flight complete so their latency is still recorded
+            for (Future<JwksHttpResponse> future : started) {
+                future.cancel(false);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Returns the mirrors in the order in which they would be requested, fastest first.
+     */
+    List<URL> getMirrorOrder() {
+        List<URL> order = new ArrayList<>();
+        for (Mirror mirror : orderedMirrors(null)) {
+            order.add(mirror.url);
+        }
+        return order;
+    }
+
+    private List<Mirror> orderedMirrors(URL requested) {
+        List<Mirror> ordered = new ArrayList<>(mirrors);
+        if (requested != null && !containsMirror(requested)) {
+            ordered.add(0, new Mirror(requested, -1));
+        }
+        ordered.sort(Comparator.comparingInt(Mirror::failurePenalty)
+                .thenComparingLong(Mirror::averageNanos)
+                .thenComparingInt(mirror -> mirror.position));
+        return ordered;
+    }
+
+    private boolean containsMirror(URL url) {
+        String external = url.toExternalForm();
+        for (Mirror mirror : mirrors) {
+            if (mirror.url.toExternalForm().equals(external)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long hedgeDelayNanos(Mirror mirror) {
+        if (hedgeDelay != null) {
+            return hedgeDelay.toNanos();
+        }
+        long p95 = mirror.percentileNanos(0.95);
+        return p95 < 0 ? DEFAULT_HEDGE_DELAY_NANOS : Math.max(MIN_HEDGE_DELAY_NANOS, p95);
+    }
+
+    private static IOException asIOException(Throwable cause, IOException previous) {
+        IOException failure = cause instanceof IOException ? (IOException) cause :
+                new IOException("Failed to fetch jwks from mirror", cause);
+        if (previous != null && previous != failure) {
+            failure.addSuppressed(previous);
+        }
+        return failure;
+    }
+
+    /**
+     * Latency statistics of one mirror, keeping the most recent successful samples.
+     */
+    private static final class Mirror {
+        private static final int SAMPLES = 64;
+
+        final URL url;
+        final int position;
+        private final long[] samples = new long[SAMPLES];
+        private int count;
+        private int consecutiveFailures;
+
+        Mirror(URL url, int position) {
+            this.url = url;
+            this.position = position;
+        }
+
+        JwksHttpResponse fetch(JwksHttpClient client) throws IOException {
+            long start = System.nanoTime();
+            try {
+                JwksHttpResponse response = client.fetch(url);
+                recordSuccess(System.nanoTime() - start);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                recordFailure();
+                throw e;
+            }
+        }
+
+        synchronized void recordSuccess(long nanos) {
+            samples[count % SAMPLES] = nanos;
+            count++;
+            consecutiveFailures = 0;
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+        }
+
+        synchronized int failurePenalty() {
+            return consecutiveFailures;
+        }
+
+        /**
+         * @return the average latency, or 0 for a mirror that was never fetched so that it gets tried
+         */
+        synchronized long averageNanos() {
+            int size = Math.min(count, SAMPLES);
+            if (size == 0) {
+                return 0;
+            }
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += samples[i];
+            }
+            return total / size;
+        }
+
+        /**
+         * @return the given percentile of the latency, or -1 without enough samples
+         */
+        synchronized long percentileNanos(double percentile) {
+            int size = Math.min(count, SAMPLES);
+            if (size < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.auth0.jwk;
+
+import java.util.List;
+
+/**
+ * {@link JwkSetProvider} that holds the key set it fetched last, so that {@link CachedJwkProvider}
+ * can cache every key of it on a miss without fetching the jwks again.
+ */
+interface HoldingJwkSetProvider extends JwkSetProvider {
+
+    /**
+     * Returns the held key set if it contains the given kid, or if the kid is a removed key still
+     * served, and otherwise fetches the jwks and holds the fetched key set instead.
+     *
+     * @param keyId the kid that was missed, or null for a token without kid
+     * @return the keys
+     * @throws JwkException if the keys cannot be loaded
+     */
+    List<Jwk> getAllFor(String keyId) throws JwkException;
+
+    /**
+     * Returns a key that a refresh removed from the jwks but that is still served during the grace
+     * period, so that a key set cached in bulk keeps serving it as a lookup through
+     * {@link JwkProvider#get(String)} would.
+     *
+     * @param keyId the kid to look for, never null
+     * @return the removed key, or null if there is none
+     */
+    default Jwk getRemoved(String keyId) {
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process {@link JwksSharedCache}, the reference implementation of the shared cache. Giving one
+ * instance to several providers makes them behave as the nodes of a cluster sharing a store, which
+ * is mostly useful for tests.
+ */
+@SuppressWarnings("WeakerAccess")
+public class InMemoryJwksSharedCache implements JwksSharedCache {
+
+    private final ConcurrentHashMap<String, Stored> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> leases = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    /**
+     * Creates an empty cache
+     */
+    public InMemoryJwksSharedCache() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryJwksSharedCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public JwksCacheEntry get(String key) {
+        Stored stored = entries.get(key);
+        if (stored == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= stored.retainedUntil) {
+            entries.remove(key, stored);
+            return null;
+        }
+        return stored.entry;
+    }
+
+    @Override
+    public void put(String key, JwksCacheEntry entry, Duration retention) {
+        entries.put(key, new Stored(entry, clock.getAsLong() + retention.toMillis()));
+    }
+
+    @Override
+    public boolean tryLock(String key, Duration lease) {
+        long now = clock.getAsLong();
+        long until = now + lease.toMillis();
+        Long current = leases.putIfAbsent(key, until);
+        return current == null || (current <= now && leases.replace(key, current, until));
+    }
+
+    @Override
+    public void unlock(String key) {
+        leases.remove(key);
+    }
+
+    private static final class Stored {
+        final JwksCacheEntry entry;
+        final long retainedUntil;
+
+        Stored(JwksCacheEntry entry, long retainedUntil) {
+            this.entry = entry;
+            this.retainedUntil = retainedUntil;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.auth0.jwk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link JwksParser} backed by Jackson databind.
+ *
+ * <p>All instances share a single, immutable {@link ObjectReader}, so creating many providers
+ * does not create a new {@link ObjectMapper} for each of them.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class JacksonJwksParser implements JwksParser {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(Map.class);
+
+    @Override
+    public List<Map<String, Object>> parseKeys(String json) throws IOException {
+        Map<String, Object> jwks = READER.readValue(json);
+        return SimpleJwksParser.keysOf(jwks);
+    }
+}
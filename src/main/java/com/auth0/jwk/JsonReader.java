@@ -0,0 +1,315 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader over a {@link String}, sufficient for JWKS documents.
+ *
+ * <p>Objects are read as {@link LinkedHashMap}, arrays as {@link ArrayList}, numbers as
+ * {@link Integer}, {@link Long}, {@link BigInteger} or {@link Double} (mirroring Jackson's defaults)
+ * and literals as {@link Boolean} or null. Besides full reads, the reader exposes its position so
+ * callers can skip over values and remember where they start and end.</p>
+ */
+final class JsonReader {
+
+    private final String json;
+    private final int end;
+    private int pos;
+
+    JsonReader(String json) {
+        this(json, 0, json.length());
+    }
+
+    JsonReader(String json, int start, int end) {
+        this.json = json;
+        this.pos = start;
+        this.end = end;
+    }
+
+    /**
+     * Reads a complete document, failing if anything but whitespace follows the top-level value.
+     */
+    static Object parse(String json) throws IOException {
+        if (json == null) {
+            throw new IOException("Cannot parse a null JSON document");
+        }
+        JsonReader reader = new JsonReader(json);
+        Object value = reader.readValue();
+        reader.expectEnd();
+        return value;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    /**
+     * Skips whitespace and returns the next significant character without consuming it.
+     */
+    char peek() throws IOException {
+        skipWhitespace();
+        if (pos >= end) {
+            throw error("Unexpected end of input");
+        }
+        return json.charAt(pos);
+    }
+
+    void expect(char c) throws IOException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Consumes the given character if it is the next significant one.
+     */
+    boolean consume(char c) throws IOException {
+        if (peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    void expectEnd() throws IOException {
+        skipWhitespace();
+        if (pos != end) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    Object readValue() throws IOException {
+        char c = peek();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    /**
+     * Moves past the next value without materializing it.
+     */
+    void skipValue() throws IOException {
+        char c = peek();
+        switch (c) {
+            case '{':
+                pos++;
+                if (!consume('}')) {
+                    do {
+                        skipString();
+                        expect(':');
+                        skipValue();
+                    } while (consume(','));
+                    expect('}');
+                }
+                break;
+            case '[':
+                pos++;
+                if (!consume(']')) {
+                    do {
+                        skipValue();
+                    } while (consume(','));
+                    expect(']');
+                }
+                break;
+            case '"':
+                skipString();
+                break;
+            default:
+                readValue();
+        }
+    }
+
+    Map<String, Object> readObject() throws IOException {
+        expect('{');
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (consume('}')) {
+            return map;
+        }
+        do {
+            String key = readString();
+            expect(':');
+            map.put(key, readValue());
+        } while (consume(','));
+        expect('}');
+        return map;
+    }
+
+    List<Object> readArray() throws IOException {
+        expect('[');
+        List<Object> list = new ArrayList<>();
+        if (consume(']')) {
+            return list;
+        }
+        do {
+            list.add(readValue());
+        } while (consume(','));
+        expect(']');
+        return list;
+    }
+
+    String readString() throws IOException {
+        expect('"');
+        int start = pos;
+        // fast path: no escapes
+        while (pos < end) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                return json.substring(start, pos++);
+            }
+            if (c == '\\') {
+                break;
+            }
+            if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            }
+            pos++;
+        }
+        StringBuilder sb = new StringBuilder(pos - start + 16);
+        sb.append(json, start, pos);
+        while (pos < end) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (pos >= end) {
+                    break;
+                }
+                char e = json.charAt(pos++);
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(e);
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > end) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape character '" + e + "'");
+                }
+            } else if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipString() throws IOException {
+        expect('"');
+        while (pos < end) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                pos++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        if (!json.startsWith(literal, pos) || pos + literal.length() > end) {
+            throw error("Unexpected token");
+        }
+        pos += literal.length();
+    }
+
+    private Number readNumber() throws IOException {
+        int start = pos;
+        boolean integral = true;
+        while (pos < end) {
+            char c = json.charAt(pos);
+            if (c >= '0' && c <= '9' || c == '-' || c == '+') {
+                pos++;
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (start == pos) {
+            throw error("Unexpected character '" + json.charAt(pos) + "'");
+        }
+        String number = json.substring(start, pos);
+        try {
+            if (!integral) {
+                return new BigDecimal(number).doubleValue();
+            }
+            BigInteger value = new BigInteger(number);
+            if (value.bitLength() < 32) {
+                return value.intValue();
+            }
+            if (value.bitLength() < 64) {
+                return value.longValue();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at position " + pos);
+    }
+}
@@ -1,10 +1,23 @@
 package com.auth0.jwk;
 
+import java.io.ByteArrayInputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
+import java.security.cert.CertPathValidator;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
 import java.security.spec.ECGenParameterSpec;
 import java.security.spec.ECParameterSpec;
 import java.security.spec.ECPoint;
@@ -12,11 +25,16 @@ import java.security.spec.ECPublicKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.InvalidParameterSpecException;
 import java.security.spec.RSAPublicKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents a JSON Web Key (JWK) used to verify the signature of JWTs
@@ -29,6 +47,22 @@ public class Jwk {
     private static final String ELLIPTIC_CURVE_TYPE_P384 = "P-384";
     private static final String ELLIPTIC_CURVE_TYPE_P521 = "P-521";
 
+    private static final String[] KEY_MATERIAL_NAMES = {"n", "e", "x", "y"};
+    private static final byte[] EXPONENT_F4 = {1, 0, 1};
+    // how long a failed validation of the x5c chain is reported before the chain is validated again
+    private static final long CHAIN_FAILURE_RECHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String EXPONENT_F4_ENCODED = "AQAB";
+    // approximate footprint of a key without its key material: the object, its strings and headers
+    private static final int BASE_WEIGHT = 256;
+    // marks a key whose public key is held softly but has not been built yet
+    private static final Reference<PublicKey> SOFTLY_HELD = new SoftReference<>(null);
+    private static final Map<String, String> CANONICAL_VALUES = canonicalValues(
+            ALGORITHM_RSA, ALGORITHM_ELLIPTIC_CURVE, "oct", "OKP",
+            "RS256", "RS384", "RS512", "PS256", "PS384", "PS512", "ES256", "ES384", "ES512", "EdDSA",
+            "RSA-OAEP", "RSA-OAEP-256", "sig", "enc", "sign", "verify", "encrypt", "decrypt",
+            "wrapKey", "unwrapKey", "deriveKey", "deriveBits",
+            ELLIPTIC_CURVE_TYPE_P256, ELLIPTIC_CURVE_TYPE_P384, ELLIPTIC_CURVE_TYPE_P521, "Ed25519", "Ed448");
+
     private final String id;
     private final String type;
     private final String algorithm;
@@ -37,7 +71,27 @@ public class Jwk {
     private final String certificateUrl;
     private final List<String> certificateChain;
     private final String certificateThumbprint;
-    private final Map<String, Object> additionalAttributes;
+    /**
+     * Key parameters held in decoded form by keys created through {@link #fromValues(Map)}, indexed as
+     * {@link #KEY_MATERIAL_NAMES}. Null when the key was created with an attributes map.
+     */
+    private final byte[][] keyMaterial;
+    private final String curve;
+    /**
+     * The attributes not held in a dedicated field.
+     */
+    private final Map<String, Object> attributes;
+    private volatile Map<String, Object> additionalAttributes;
+    /**
+     * The built public key, or a {@link SoftReference} to it once {@link #holdPublicKeySoftly()} was called.
+     */
+    private volatile Object publicKey;
+    // the failure recorded by materialize(), rethrown instead of building the key again
+    private volatile InvalidPublicKeyException failure;
+    // the certificates of x5c parsed on first use, or the exception raised when parsing them
+    private volatile Object certificates;
+    private volatile Boolean thumbprintsMatch;
+    private volatile ChainValidation chainValidation;
 
     /**
      * Creates a new Jwk
@@ -62,9 +116,26 @@ public class Jwk {
         this.certificateUrl = certificateUrl;
         this.certificateChain = certificateChain;
         this.certificateThumbprint = certificateThumbprint;
+        this.keyMaterial = null;
+        this.curve = null;
+        this.attributes = additionalAttributes;
         this.additionalAttributes = additionalAttributes;
     }
 
+    private Jwk(String id, String type, String algorithm, String usage, List<String> operations, String certificateUrl, List<String> certificateChain, String certificateThumbprint, byte[][] keyMaterial, String curve, Map<String, Object> attributes) {
+        this.id = id;
+        this.type = type;
+        this.algorithm = algorithm;
+        this.usage = usage;
+        this.operations = operations;
+        this.certificateUrl = certificateUrl;
+        this.certificateChain = certificateChain;
+        this.certificateThumbprint = certificateThumbprint;
+        this.keyMaterial = keyMaterial;
+        this.curve = curve;
+        this.attributes = attributes;
+    }
+
     /**
      * Creates a new Jwk
      *
@@ -86,6 +157,16 @@ public class Jwk {
         this(id, type, algorithm, usage, Collections.singletonList(operations), certificateUrl, certificateChain, certificateThumbprint, additionalAttributes);
     }
 
+    /**
+     * Creates a new Jwk from the attributes of a JSON Web Key.
+     * <br><br> The returned Jwk uses a compact representation: well-known values are shared, the
+     * key parameters ({@code n}, {@code e}, {@code x} and {@code y}) are held in decoded form, and
+     * the map returned by {@link #getAdditionalAttributes()} is only built when first requested.
+     *
+     * @param map the attributes of the key
+     * @return a new Jwk
+     * @throws IllegalArgumentException if the attributes are not from a valid jwk
+     */
     @SuppressWarnings("unchecked")
     public static Jwk fromValues(Map<String, Object> map) {
         Map<String, Object> values = new HashMap<>(map);
@@ -100,10 +181,80 @@ public class Jwk {
         if (kty == null) {
             throw new IllegalArgumentException("Attributes " + map + " are not from a valid jwk");
         }
-        if (keyOps instanceof String) {
-            return new Jwk(kid, kty, alg, use, (String) keyOps, x5u, x5c, x5t, values);
-        } else {
-            return new Jwk(kid, kty, alg, use, (List<String>) keyOps, x5u, x5c, x5t, values);
+
+        List<String> operations = keyOps instanceof String ?
+                Collections.singletonList(canonical((String) keyOps)) : compactList((List<String>) keyOps, true);
+
+        byte[][] keyMaterial = new byte[KEY_MATERIAL_NAMES.length][];
+        for (int i = 0; i < KEY_MATERIAL_NAMES.length; i++) {
+            Object value = values.get(KEY_MATERIAL_NAMES[i]);
+            if (value instanceof String) {
+                keyMaterial[i] = decodeKeyMaterial((String) value);
+                if (keyMaterial[i] != null) {
+                    values.remove(KEY_MATERIAL_NAMES[i]);
+                }
+            }
+        }
+        String crv = null;
+        if (values.get("crv") instanceof String) {
+            crv = canonical((String) values.remove("crv"));
+        }
+
+        return new Jwk(kid, canonical(kty), canonical(alg), canonical(use), operations, x5u, compactList(x5c, false),
+                x5t, keyMaterial, crv, values.isEmpty() ? Collections.<String, Object>emptyMap() : values);
+    }
+
+    private static Map<String, String> canonicalValues(String... values) {
+        Map<String, String> canonical = new HashMap<>();
+        for (String value : values) {
+            canonical.put(value, value);
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the shared instance of a well-known value. Unknown values are returned as-is rather than
+     * interned, so untrusted input cannot grow the string pool.
+     */
+    private static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = CANONICAL_VALUES.get(value);
+        return canonical != null ? canonical : value;
+    }
+
+    private static List<String> compactList(List<String> list, boolean canonicalize) {
+        if (list == null) {
+            return null;
+        }
+        if (list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Object[] elements = list.toArray();
+        String[] strings = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            if (!(elements[i] instanceof String)) {
+                return list;
+            }
+            strings[i] = canonicalize ? canonical((String) elements[i]) : (String) elements[i];
+        }
+        return strings.length == 1 ? Collections.singletonList(strings[0]) : Arrays.asList(strings);
+    }
+
+    /**
+     * Decodes a base64url key parameter, returning null unless it re-encodes to the exact same value so
+     * that {@link #getAdditionalAttributes()} can always reproduce the original attribute.
+     */
+    private static byte[] decodeKeyMaterial(String value) {
+        if (EXPONENT_F4_ENCODED.equals(value)) {
+            return EXPONENT_F4;
+        }
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded).equals(value) ? decoded : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -162,26 +313,224 @@ public class Jwk {
         return certificateThumbprint;
     }
 
+    /**
+     * Returns the start of the validity period of the first certificate of the x5c chain, decoded once
+     * by {@link #getCertificates()}.
+     *
+     * @return the instant from which the certificate is valid, or null if there is no parsable x5c
+     */
+    public Instant getCertificateNotBefore() {
+        X509Certificate certificate = leafCertificate();
+        return certificate != null ? certificate.getNotBefore().toInstant() : null;
+    }
+
+    /**
+     * Returns the end of the validity period of the first certificate of the x5c chain, decoded once
+     * by {@link #getCertificates()}.
+     *
+     * @return the instant until which the certificate is valid, or null if there is no parsable x5c
+     */
+    public Instant getCertificateNotAfter() {
+        X509Certificate certificate = leafCertificate();
+        return certificate != null ? certificate.getNotAfter().toInstant() : null;
+    }
+
+    /**
+     * Returns the certificates of the x5c chain, decoded on the first call and kept for the lifetime of
+     * this jwk.
+     *
+     * @return the certificates, starting with the one certifying this key, or an empty list if there
+     * is no x5c
+     * @throws InvalidPublicKeyException if a certificate of the chain cannot be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public List<X509Certificate> getCertificates() throws InvalidPublicKeyException {
+        Object parsed = parseCertificates();
+        if (parsed instanceof Exception) {
+            throw new InvalidPublicKeyException("Invalid x5c certificate chain", (Exception) parsed);
+        }
+        return (List<X509Certificate>) parsed;
+    }
+
+    /**
+     * Verifies the x5t and x5t#S256 thumbprints of this jwk, when present, against the first
+     * certificate of the x5c chain. A thumbprint matches if it is the base64url encoding of the digest
+     * of the certificate, or of that digest in uppercase hex. The result is computed once and kept for
+     * the lifetime of this jwk.
+     *
+     * @return true if there is a certificate and every thumbprint given matches it
+     */
+    public boolean isCertificateThumbprintValid() {
+        Boolean match = this.thumbprintsMatch;
+        if (match == null) {
+            X509Certificate certificate = leafCertificate();
+            Object sha256 = attributes != null ? attributes.get("x5t#S256") : null;
+            try {
+                match = certificate != null
+                        && (certificateThumbprint == null || thumbprintMatches(certificate, "SHA-1", certificateThumbprint))
+                        && (sha256 == null || thumbprintMatches(certificate, "SHA-256", sha256));
+            } catch (GeneralSecurityException e) {
+                match = false;
+            }
+            this.thumbprintsMatch = match;
+        }
+        return match;
+    }
+
+    /**
+     * Validates the x5c chain of this jwk with PKIX against the given trust anchors, and checks that
+     * its first certificate certifies this key. A successful validation is kept for the set of trust
+     * anchors until a certificate of the chain expires, so that calling this method for every token
+     * does not validate the chain again. A failure is reported for a minute before the chain is
+     * validated again, for instance after a certificate became valid or the trust anchors changed.
+     * Revocation is not checked.
+     *
+     * @param trustAnchors the trusted certificate authorities; pass the same instance on every call
+     *                     to reuse the result
+     * @throws InvalidPublicKeyException if the chain is missing, invalid, not trusted or expired
+     */
+    public void verifyCertificateChain(Set<TrustAnchor> trustAnchors) throws InvalidPublicKeyException {
+        Util.checkArgument(trustAnchors != null && !trustAnchors.isEmpty(), "A non-empty set of trust anchors is required");
+        long now = System.currentTimeMillis();
+        ChainValidation validation = this.chainValidation;
+        if (validation == null || validation.trustAnchors != trustAnchors || now > validation.validUntil) {
+            InvalidPublicKeyException failure = validateChain(trustAnchors);
+            long validUntil = failure != null ? now + CHAIN_FAILURE_RECHECK_MILLIS : chainNotAfter();
+            validation = new ChainValidation(trustAnchors, failure, validUntil);
+            this.chainValidation = validation;
+        }
+        if (validation.failure != null) {
+            throw new InvalidPublicKeyException(validation.failure.getMessage(), validation.failure);
+        }
+    }
+
+    private InvalidPublicKeyException validateChain(Set<TrustAnchor> trustAnchors) {
+        try {
+            List<X509Certificate> chain = getCertificates();
+            if (chain.isEmpty()) {
+                return new InvalidPublicKeyException("The key has no x5c certificate chain");
+            }
+            if (!Arrays.equals(chain.get(0).getPublicKey().getEncoded(), getPublicKey().getEncoded())) {
+                return new InvalidPublicKeyException("The first x5c certificate does not certify the key");
+            }
+            PKIXParameters parameters = new PKIXParameters(trustAnchors);
+            parameters.setRevocationEnabled(false);
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            CertPathValidator.getInstance("PKIX").validate(factory.generateCertPath(chain), parameters);
+            return null;
+        } catch (InvalidPublicKeyException e) {
+            return e;
+        } catch (GeneralSecurityException e) {
+            return new InvalidPublicKeyException("Invalid x5c certificate chain", e);
+        }
+    }
+
+    private long chainNotAfter() {
+        long notAfter = Long.MAX_VALUE;
+        Object parsed = parseCertificates();
+        if (parsed instanceof List) {
+            for (Object certificate : (List<?>) parsed) {
+                notAfter = Math.min(notAfter, ((X509Certificate) certificate).getNotAfter().getTime());
+            }
+        }
+        return notAfter;
+    }
+
+    private Object parseCertificates() {
+        Object parsed = this.certificates;
+        if (parsed == null) {
+            try {
+                List<X509Certificate> chain = new ArrayList<>();
+                if (certificateChain != null && !certificateChain.isEmpty()) {
+                    CertificateFactory factory = CertificateFactory.getInstance("X.509");
+                    for (String encoded : certificateChain) {
+                        if (encoded == null) {
+                            throw new CertificateException("Missing x5c certificate");
+                        }
+                        Certificate certificate = factory.generateCertificate(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)));
+                        if (!(certificate instanceof X509Certificate)) {
+                            throw new CertificateException("The x5c certificate is not an X.509 certificate");
+                        }
+                        chain.add((X509Certificate) certificate);
+                    }
+                }
+                parsed = Collections.unmodifiableList(chain);
+            } catch (CertificateException | IllegalArgumentException e) {
+                parsed = e;
+            }
+            this.certificates = parsed;
+        }
+        return parsed;
+    }
+
+    private X509Certificate leafCertificate() {
+        Object parsed = parseCertificates();
+        if (parsed instanceof List && !((List<?>) parsed).isEmpty()) {
+            return (X509Certificate) ((List<?>) parsed).get(0);
+        }
+        return null;
+    }
+
+    private static boolean thumbprintMatches(X509Certificate certificate, String algorithm, Object thumbprint) throws GeneralSecurityException {
+        byte[] digest = MessageDigest.getInstance(algorithm).digest(certificate.getEncoded());
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        if (encoder.encodeToString(digest).equals(thumbprint)) {
+            return true;
+        }
+        // Auth0 publishes the base64url encoding of the hex digest rather than of the digest itself
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return encoder.encodeToString(hex.toString().toUpperCase().getBytes(StandardCharsets.US_ASCII)).equals(thumbprint);
+    }
+
     public Map<String, Object> getAdditionalAttributes() {
+        Map<String, Object> additionalAttributes = this.additionalAttributes;
+        if (additionalAttributes == null && keyMaterial != null) {
+            additionalAttributes = new HashMap<>(attributes);
+            for (int i = 0; i < KEY_MATERIAL_NAMES.length; i++) {
+                if (keyMaterial[i] != null) {
+                    additionalAttributes.put(KEY_MATERIAL_NAMES[i], Base64.getUrlEncoder().withoutPadding().encodeToString(keyMaterial[i]));
+                }
+            }
+            if (curve != null) {
+                additionalAttributes.put("crv", curve);
+            }
+            this.additionalAttributes = additionalAttributes;
+        }
         return additionalAttributes;
     }
 
     /**
      * Returns a {@link PublicKey} if the {@code 'alg'} is {@code 'RSA'} or {@code 'EC'}
+     * <br><br> The key is built on the first call and the same instance is returned afterwards, unless
+     * it was held softly and collected under memory pressure, in which case it is built again.
      *
      * @return a public key
      * @throws InvalidPublicKeyException if the key cannot be built or the key type is not a supported type of RSA or EC
      */
-    @SuppressWarnings("WeakerAccess")
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
     public PublicKey getPublicKey() throws InvalidPublicKeyException {
-        PublicKey publicKey = null;
+        InvalidPublicKeyException failure = this.failure;
+        if (failure != null) {
+            throw new InvalidPublicKeyException(failure.getMessage(), failure);
+        }
+        Object held = this.publicKey;
+        if (held instanceof PublicKey) {
+            return (PublicKey) held;
+        }
+        PublicKey publicKey = held != null ? ((Reference<PublicKey>) held).get() : null;
+        if (publicKey != null) {
+            return publicKey;
+        }
 
         switch (type) {
             case ALGORITHM_RSA:
                 try {
                     KeyFactory kf = KeyFactory.getInstance(ALGORITHM_RSA);
-                    BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(stringValue("n")));
-                    BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(stringValue("e")));
+                    BigInteger modulus = new BigInteger(1, keyMaterial(0));
+                    BigInteger exponent = new BigInteger(1, keyMaterial(1));
                     publicKey = kf.generatePublic(new RSAPublicKeySpec(modulus, exponent));
                 } catch (InvalidKeySpecException e) {
                     throw new InvalidPublicKeyException("Invalid public key", e);
@@ -193,11 +542,11 @@ public class Jwk {
             case ALGORITHM_ELLIPTIC_CURVE:
                 try {
                     KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM_ELLIPTIC_CURVE);
-                    ECPoint ecPoint = new ECPoint(new BigInteger(1, Base64.getUrlDecoder().decode(stringValue("x"))),
-                            new BigInteger(1, Base64.getUrlDecoder().decode(stringValue("y"))));
+                    ECPoint ecPoint = new ECPoint(new BigInteger(1, keyMaterial(2)),
+                            new BigInteger(1, keyMaterial(3)));
                     AlgorithmParameters algorithmParameters = AlgorithmParameters.getInstance(ALGORITHM_ELLIPTIC_CURVE);
 
-                    String curve = stringValue("crv");
+                    String curve = this.curve != null ? this.curve : stringValue("crv");
                     switch (curve) {
                         case ELLIPTIC_CURVE_TYPE_P256:
                             algorithmParameters.init(new ECGenParameterSpec("secp256r1"));
@@ -225,11 +574,120 @@ public class Jwk {
                 throw new InvalidPublicKeyException("The key type of " + type + " is not supported");
         }
 
+        this.publicKey = held != null ? new SoftReference<>(publicKey) : publicKey;
         return publicKey;
     }
 
+    /**
+     * Builds the public key of this jwk ahead of its first use. A failure is recorded and rethrown by
+     * every later call to {@link #getPublicKey()}, so that an invalid key is not built again for each
+     * request.
+     *
+     * @return the failure, or null if the public key was built
+     */
+    InvalidPublicKeyException materialize() {
+        try {
+            getPublicKey();
+            return null;
+        } catch (InvalidPublicKeyException e) {
+            failure = e;
+            return e;
+        } catch (RuntimeException e) {
+            // missing or malformed key parameters
+            failure = new InvalidPublicKeyException("Invalid public key", e);
+            return failure;
+        }
+    }
+
+    /**
+     * Holds the public key of this jwk softly, so that the garbage collector can reclaim it under
+     * memory pressure. The decoded key parameters stay strongly held, so a collected key is rebuilt
+     * from them by the next call to {@link #getPublicKey()} without fetching the jwks again.
+     */
+    void holdPublicKeySoftly() {
+        Object held = this.publicKey;
+        if (held == null) {
+            this.publicKey = SOFTLY_HELD;
+        } else if (held instanceof PublicKey) {
+            this.publicKey = new SoftReference<>((PublicKey) held);
+        }
+    }
+
+    @VisibleForTesting
+    boolean isPublicKeyHeldSoftly() {
+        return publicKey instanceof Reference;
+    }
+
+    /**
+     * Estimates the memory retained by this key in bytes, dominated by its key material and
+     * certificate chain, so that caches can weigh an RSA-4096 key heavier than a P-256 key.
+     *
+     * @return the estimated size of the key
+     */
+    int weight() {
+        int weight = BASE_WEIGHT;
+        for (int i = 0; i < KEY_MATERIAL_NAMES.length; i++) {
+            if (keyMaterial != null && keyMaterial[i] != null) {
+                weight += keyMaterial[i].length;
+            } else if (attributes != null && attributes.get(KEY_MATERIAL_NAMES[i]) instanceof String) {
+                weight += ((String) attributes.get(KEY_MATERIAL_NAMES[i])).length();
+            }
+        }
+        if (certificateChain != null) {
+            for (String certificate : certificateChain) {
+                weight += certificate.length();
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Updates the given digest with the identity and key material of this key, so that two fetches of
+     * the same key give the same digest whatever the encoding of the document.
+     *
+     * @param digest the digest to update
+     */
+    void digest(MessageDigest digest) {
+        update(digest, id);
+        update(digest, type);
+        update(digest, algorithm);
+        update(digest, usage);
+        update(digest, curve != null ? curve : attributes != null && attributes.get("crv") instanceof String ? stringValue("crv") : null);
+        for (int i = 0; i < KEY_MATERIAL_NAMES.length; i++) {
+            if (keyMaterial != null && keyMaterial[i] != null) {
+                digest.update(keyMaterial[i]);
+            } else if (attributes != null && attributes.get(KEY_MATERIAL_NAMES[i]) instanceof String) {
+                try {
+                    digest.update(keyMaterial(i));
+                } catch (IllegalArgumentException e) {
+                    update(digest, stringValue(KEY_MATERIAL_NAMES[i]));
+                }
+            }
+            digest.update((byte) 0);
+        }
+        if (certificateChain != null) {
+            for (String certificate : certificateChain) {
+                update(digest, certificate);
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private byte[] keyMaterial(int index) {
+        if (keyMaterial != null && keyMaterial[index] != null) {
+            return keyMaterial[index];
+        }
+        return Base64.getUrlDecoder().decode(stringValue(KEY_MATERIAL_NAMES[index]));
+    }
+
     private String stringValue(String key) {
-        return (String) additionalAttributes.get(key);
+        return (String) attributes.get(key);
     }
 
     @Override
@@ -239,7 +697,24 @@ public class Jwk {
                 ", type='" + type + '\'' +
                 ", algorithm='" + algorithm + '\'' +
                 ", usage='" + usage + '\'' +
-                ", additionalAttributes=" + additionalAttributes +
+                ", additionalAttributes=" + getAdditionalAttributes() +
                 '}';
     }
+
+    /**
+     * The outcome of validating the x5c chain against a set of trust anchors.
+     */
+    private static final class ChainValidation {
+        final Set<TrustAnchor> trustAnchors;
+        final InvalidPublicKeyException failure;
+        // when the chain must be validated again: the earliest expiration of its certificates after a
+        // success, or the end of the recheck delay after a failure
+        final long validUntil;
+
+        ChainValidation(Set<TrustAnchor> trustAnchors, InvalidPublicKeyException failure, long validUntil) {
+            this.trustAnchors = trustAnchors;
+            this.failure = failure;
+            this.validUntil = validUntil;
+        }
+    }
 }
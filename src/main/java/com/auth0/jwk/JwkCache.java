@@ -0,0 +1,89 @@
+package com.auth0.jwk;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores the keys returned by a {@link JwkProvider}, for use by {@link CachedJwkProvider}.
+ *
+ * <p>The following implementations are available:</p>
+ * <ul>
+ *     <li>{@link GuavaJwkCache}: the default, backed by a Guava cache</li>
+ *     <li>{@link CaffeineJwkCache}: backed by a Caffeine cache, with optional background refresh;
+ *     requires Caffeine on the classpath</li>
+ *     <li>{@link ConcurrentMapJwkCache}: a lock-free map without any dependency, suited to the
+ *     handful of keys usually published in a jwks</li>
+ *     <li>{@link AdaptiveJwkCache}: sized by the weight of the keys actually in use, for services
+ *     verifying tokens of many issuers</li>
+ * </ul>
+ *
+ * @see JwkProviderBuilder#cache(JwkCache)
+ */
+public interface JwkCache {
+
+    /**
+     * Returns the key cached for the given id, loading it from the given provider if it is not cached.
+     *
+     * @param keyId  the id of the key, never null
+     * @param loader the provider used to load the key when it is not cached
+     * @return the key
+     * @throws JwkException if the key is not cached and cannot be loaded
+     */
+    Jwk get(String keyId, JwkProvider loader) throws JwkException;
+
+    /**
+     * Returns the key cached for the given id without loading it. This is called on every lookup
+     * before {@link #get(String, JwkProvider)}, so implementations should not allocate on a hit.
+     *
+     * @param keyId the id of the key, never null
+     * @return the key, or null if it is not cached
+     */
+    default Jwk getIfPresent(String keyId) {
+        return null;
+    }
+
+    /**
+     * Caches a key under the given id, replacing any key cached for it.
+     *
+     * @param keyId the id of the key, never null
+     * @param jwk   the key
+     */
+    void put(String keyId, Jwk jwk);
+
+    /**
+     * Caches a key under the given id along with the provider it can be reloaded from, for caches that
+     * refresh the keys they serve. By default, the provider is ignored.
+     *
+     * @param keyId  the id of the key, never null
+     * @param jwk    the key
+     * @param loader the provider used to reload the key
+     */
+    default void put(String keyId, Jwk jwk, JwkProvider loader) {
+        put(keyId, jwk);
+    }
+
+    /**
+     * Caches several keys, all reloaded from the given provider, replacing any key cached for their ids.
+     * This is called with every key of a fetched jwks, so caches that copy state on each put should
+     * override it to do so once. By default, each key is put in turn.
+     *
+     * @param jwks   the keys by id, none of them null
+     * @param loader the provider used to reload any of the keys
+     */
+    default void putAll(Map<String, Jwk> jwks, JwkProvider loader) {
+        for (Map.Entry<String, Jwk> entry : jwks.entrySet()) {
+            put(entry.getKey(), entry.getValue(), loader);
+        }
+    }
+
+    /**
+     * Sets a listener told of the keys the cache evicts, because of its size bound or their expiration,
+     * so that state kept alongside a cached key can be released with it. An expired key is reported when
+     * the cache drops it, which may be when it is next read or replaced; keys replaced by a put before
+     * they expired are not reported. By default, the listener is never called.
+     *
+     * @param listener called with the id and the key that were evicted
+     */
+    default void setRemovalListener(BiConsumer<String, Jwk> listener) {
+    }
+}
@@ -2,9 +2,16 @@ package com.auth0.jwk;
 
 import java.net.Proxy;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static com.auth0.jwk.UrlJwkProvider.urlForDomain;
 
@@ -15,16 +22,38 @@ import static com.auth0.jwk.UrlJwkProvider.urlForDomain;
 public class JwkProviderBuilder {
 
     private final URL url;
+    private final Path file;
     private Proxy proxy;
     private Duration expiresIn;
     private Integer connectTimeout;
     private Integer readTimeout;
     private long cacheSize;
     private boolean cached;
+    private JwkCache cache;
     private BucketImpl bucket;
+    private List<Object> bucketSpec;
     private boolean rateLimited;
     private Map<String, String> headers;
     private JwksHttpClient httpClient;
+    private JwksParser parser;
+    private boolean lazyParsing;
+    private boolean memorySensitive;
+    private Duration gracePeriod;
+    private JwksValidationPolicy validationPolicy;
+    private Duration certificateRefreshAhead;
+    private boolean shared;
+    private List<URL> mirrors;
+    private Duration hedgeDelay;
+    private FetchBulkhead bulkhead;
+    private Path store;
+    private JwksSharedCache sharedCache;
+    private JwksRelayServer relay;
+    private Duration sharedCacheTtl;
+    private boolean prefetch;
+    private boolean snapshot;
+    private Duration refreshAfter;
+    private Duration maxRefreshAfter;
+    private RefreshScheduler refreshScheduler;
 
     /**
      * Creates a new Builder with the given URL where to load the jwks from.
@@ -33,15 +62,40 @@ public class JwkProviderBuilder {
      * @throws IllegalStateException if url is null
      */
     public JwkProviderBuilder(URL url) {
+        this(url, null);
         if (url == null) {
             throw new IllegalStateException("Cannot build provider without url to jwks");
         }
+    }
+
+    /**
+     * Creates a new Builder with a local file where to load the jwks from, for example one kept up to
+     * date by a sidecar. The file is watched and reloaded when it changes, and no network request is
+     * ever made; the options of the HTTP client, mirrors and lazy parsing are ignored. The file holds
+     * the current keys already, so the cache, rate limit and snapshot options are ignored as well:
+     * {@link #build()} returns the {@link FileJwkProvider} itself, or a {@link PrefetchingJwkProvider}
+     * wrapping it, to be closed to stop watching the file.
+     *
+     * @param file to load the jwks
+     * @throws IllegalStateException if file is null
+     * @see FileJwkProvider
+     */
+    public JwkProviderBuilder(Path file) {
+        this(null, file);
+        if (file == null) {
+            throw new IllegalStateException("Cannot build provider without file to jwks");
+        }
+    }
+
+    private JwkProviderBuilder(URL url, Path file) {
         this.url = url;
+        this.file = file;
         this.cached = true;
         this.expiresIn = Duration.ofHours(10);
         this.cacheSize = 5;
         this.rateLimited = true;
         this.bucket = new BucketImpl(10, 1, TimeUnit.MINUTES);
+        this.bucketSpec = Arrays.<Object>asList(10L, 1L, TimeUnit.MINUTES);
     }
 
     /**
@@ -88,6 +142,7 @@ public class JwkProviderBuilder {
      */
     public JwkProviderBuilder cached(long cacheSize, Duration expiresIn) {
         this.cached = true;
+        this.cache = null;
         this.cacheSize = cacheSize;
         this.expiresIn = expiresIn;
         return this;
@@ -105,6 +160,21 @@ public class JwkProviderBuilder {
         return this.cached(cacheSize, Duration.ofSeconds(unit.toSeconds(expiresIn)));
     }
 
+    /**
+     * Enable the cache using the given {@link JwkCache}, such as a {@link CaffeineJwkCache} or a
+     * {@link ConcurrentMapJwkCache}. The size and expire time are those the cache was created with.
+     * By default, a {@link GuavaJwkCache} is used. A cache instance must not be given to more than
+     * one provider.
+     *
+     * @param cache the cache storing the jwks
+     * @return the builder
+     */
+    public JwkProviderBuilder cache(JwkCache cache) {
+        this.cached = true;
+        this.cache = cache;
+        return this;
+    }
+
     /**
      * Toggle the rate limit of Jwk. By default the Provider will use rate limit.
      *
@@ -126,6 +196,7 @@ public class JwkProviderBuilder {
      */
     public JwkProviderBuilder rateLimited(long bucketSize, long refillRate, TimeUnit unit) {
         bucket = new BucketImpl(bucketSize, refillRate, unit);
+        bucketSpec = Arrays.<Object>asList(bucketSize, refillRate, unit);
         return this;
     }
 
@@ -204,24 +275,442 @@ public class JwkProviderBuilder {
         return this;
     }
 
+    /**
+     * Sets the parser used to read the JWKS document.
+     *
+     * <p>By default a single Jackson-based parser is shared by every provider when Jackson is on the
+     * classpath; otherwise the built-in {@link SimpleJwksParser} is used. Pass a
+     * {@link SimpleJwksParser} to avoid loading Jackson altogether.</p>
+     *
+     * @param parser the parser to use
+     * @return the builder
+     * @see JwksParser
+     */
+    public JwkProviderBuilder parser(JwksParser parser) {
+        this.parser = parser;
+        return this;
+    }
+
+    /**
+     * Toggle lazy parsing of the jwks. When enabled, each fetched document is scanned once to index
+     * the position of every kid, and only the keys that are actually requested are parsed. This is
+     * useful for documents holding many keys of which only a few are used. By default, every key is
+     * parsed as soon as the document is fetched.
+     *
+     * @param lazyParsing if keys should only be parsed when requested
+     * @return the builder
+     */
+    public JwkProviderBuilder lazyParsing(boolean lazyParsing) {
+        this.lazyParsing = lazyParsing;
+        return this;
+    }
+
+    /**
+     * Bounds the time a key with an x5c chain is cached by the validity of its certificate, on top of
+     * the cache expire time. The key is reloaded in the background once its certificate expires
+     * within the given amount of time, and reloaded before being returned once its certificate has
+     * expired. Only applies to the cached provider, not to {@link #snapshot(boolean)}. By default,
+     * certificates are ignored.
+     *
+     * @param refreshAhead how long before its certificate expires a key is reloaded
+     * @return the builder
+     * @see Jwk#getCertificateNotAfter()
+     */
+    public JwkProviderBuilder alignExpiryWithCertificates(Duration refreshAhead) {
+        Util.checkArgument(refreshAhead != null && !refreshAhead.isNegative(), "A non-negative refresh ahead time is required");
+        this.certificateRefreshAhead = refreshAhead;
+        return this;
+    }
+
+    /**
+     * Builds every public key of a fetched jwks before it replaces the cached keys, and discards the
+     * jwks if the given policy rejects it, keeping the previous keys. A key whose public key cannot be
+     * built fails right away with the recorded {@link InvalidPublicKeyException} instead of being built
+     * again for each request. Lazy parsing is disabled by validation. By default, keys are published as
+     * parsed and built on first use.
+     *
+     * <p>A jwks rejected by the policy is not stored in the {@link #sharedCache(JwksSharedCache, Duration) shared cache},
+     * {@link #publishTo(Path) store} or {@link #relayTo(JwksRelayServer) relay} either. Building every
+     * key is part of the fetch, so it runs on the request path when a lookup misses the cache; use
+     * {@link #prefetch(boolean)} or a snapshot refreshed in the background to keep it off the request
+     * path.</p>
+     *
+     * @param validationPolicy the policy deciding whether a fetched jwks is published
+     * @return the builder
+     * @see JwksValidationPolicy#allKeysValid()
+     */
+    public JwkProviderBuilder validateKeys(JwksValidationPolicy validationPolicy) {
+        this.validationPolicy = validationPolicy;
+        return this;
+    }
+
+    /**
+     * Keeps serving a key for the given amount of time after a refresh removed it from the jwks. During
+     * a rotation, the edges of a CDN may serve older and newer documents for a few minutes; a removed
+     * key is then still found instead of triggering another fetch for every token signed with it. By
+     * default, removed keys are forgotten right away.
+     *
+     * @param gracePeriod how long a removed key is still served
+     * @return the builder
+     */
+    public JwkProviderBuilder retainRemovedKeys(Duration gracePeriod) {
+        Util.checkArgument(gracePeriod != null && !gracePeriod.isNegative(), "A non-negative grace period is required");
+        this.gracePeriod = gracePeriod;
+        return this;
+    }
+
+    /**
+     * Toggle the memory sensitive mode, for services holding the keys of many issuers. When enabled,
+     * the public keys built from the jwks and the keys parsed from the fetched document are held
+     * softly, so that the garbage collector can reclaim them for issuers that are not in use when the
+     * heap runs low. The fetched document and the decoded key parameters stay strongly held, so
+     * reclaimed keys are rebuilt from them without fetching the jwks again. By default, everything is
+     * strongly held until it expires.
+     *
+     * @param memorySensitive if parsed and public keys should be reclaimable under memory pressure
+     * @return the builder
+     */
+    public JwkProviderBuilder memorySensitive(boolean memorySensitive) {
+        this.memorySensitive = memorySensitive;
+        return this;
+    }
+
+    /**
+     * Sets mirrors publishing the same jwks as the builder's url, such as regional hostnames or a CDN.
+     * The fastest known url is requested first and, if it has not answered after the hedge delay, the
+     * next one is requested as well; the first successful response wins.
+     *
+     * @param mirrors    the urls publishing the same jwks
+     * @param hedgeDelay how long to wait for a url before also requesting the next one, or null to
+     *                   learn it from the observed latency
+     * @return the builder
+     * @see HedgingJwksHttpClient
+     */
+    public JwkProviderBuilder mirrors(List<URL> mirrors, Duration hedgeDelay) {
+        this.mirrors = mirrors;
+        this.hedgeDelay = hedgeDelay;
+        return this;
+    }
+
+    /**
+     * Makes the fetches of the provider go through the given bulkhead. Give the same bulkhead to every
+     * provider of the application to bound the number of jwks fetches in flight across all of them;
+     * a fetch that cannot start in time fails with a {@link NetworkException} caused by a
+     * {@link BulkheadFullException}.
+     *
+     * @param bulkhead the bulkhead limiting the fetches
+     * @return the builder
+     * @see FetchBulkhead
+     */
+    public JwkProviderBuilder bulkhead(FetchBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+        return this;
+    }
+
+    /**
+     * Consults a cache shared by the nodes of a cluster, such as one backed by Redis, before fetching
+     * the jwks, and stores the fetched jwks in it, so that a single node fetches the jwks from the
+     * identity provider in each time-to-live window. A fetched jwks is only stored once the provider
+     * accepted it, see {@link #validateKeys(JwksValidationPolicy)}.
+     *
+     * @param sharedCache the shared cache
+     * @param ttl         how long a fetched document is served from the shared cache
+     * @return the builder
+     * @see SharedCacheJwksHttpClient
+     */
+    public JwkProviderBuilder sharedCache(JwksSharedCache sharedCache, Duration ttl) {
+        this.sharedCache = sharedCache;
+        this.sharedCacheTtl = ttl;
+        return this;
+    }
+
+    /**
+     * Publishes every jwks fetched by the provider to a {@link MappedJwkStore}, so that the other
+     * processes of the host can read the keys with a {@link MappedJwkProvider} instead of fetching
+     * and holding their own copy. Only one process should publish to a given store. A fetched jwks
+     * is only published once the provider accepted it, see {@link #validateKeys(JwksValidationPolicy)}.
+     *
+     * @param store the store file
+     * @return the builder
+     * @see MappedJwkStore#publishing(JwksHttpClient, Path)
+     */
+    public JwkProviderBuilder publishTo(Path store) {
+        this.store = store;
+        return this;
+    }
+
+    /**
+     * Relays every jwks fetched by the provider through the given embedded server, so that the other
+     * processes of the host, including non-JVM ones, get the jwks from this process instead of the
+     * identity provider. A fetched jwks is only relayed once the provider accepted it, see
+     * {@link #validateKeys(JwksValidationPolicy)}.
+     *
+     * @param relay the server relaying the jwks
+     * @return the builder
+     * @see JwksRelayServer
+     */
+    public JwkProviderBuilder relayTo(JwksRelayServer relay) {
+        this.relay = relay;
+        return this;
+    }
+
+    /**
+     * Toggle prefetching of the jwks. When enabled, the provider starts fetching the jwks in the
+     * background as soon as it is built, builds every public key and fills its caches; the returned
+     * provider is a {@link PrefetchingJwkProvider} that tells when the keys are ready. By default,
+     * nothing is fetched until the first key is requested.
+     *
+     * <p>When {@link #shared(boolean)} is also enabled, the keys are only prefetched by the first
+     * provider built for the configuration, and the returned provider is a {@link SharedJwkProvider}
+     * whose {@link SharedJwkProvider#readiness()} tells when they are ready.</p>
+     *
+     * @param prefetch if the keys should be loaded when the provider is built
+     * @return the builder
+     */
+    public JwkProviderBuilder prefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Toggle the single-layer provider. When enabled, the whole key set is cached as one snapshot by a
+     * {@link SnapshotJwkProvider} that also applies the rate limit, instead of caching each key in a
+     * {@link JwkCache} in front of a separate rate limiter. The snapshot expires after the cache
+     * expire time, and the cache size and {@link #cache(JwkCache)} are ignored. By default, the
+     * layered providers are used.
+     *
+     * @param snapshot if the key set should be cached as a single snapshot
+     * @return the builder
+     */
+    public JwkProviderBuilder snapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+        this.refreshAfter = null;
+        this.maxRefreshAfter = null;
+        return this;
+    }
+
+    /**
+     * Enable the single-layer provider, refreshing the key set in the background when it is used
+     * after the given amount of time, so that it does not expire while in use.
+     *
+     * @param refreshAfter amount of time after which the key set is refreshed in the background
+     * @return the builder
+     * @see #snapshot(boolean)
+     */
+    public JwkProviderBuilder snapshot(Duration refreshAfter) {
+        this.snapshot = true;
+        this.refreshAfter = refreshAfter;
+        this.maxRefreshAfter = null;
+        return this;
+    }
+
+    /**
+     * Enable the single-layer provider with a refresh interval learned from how often the key set
+     * changes. The interval starts at the minimum, doubles up to the maximum after each refresh that
+     * finds the same keys, and falls back to the minimum after a refresh that finds a rotation. The
+     * snapshot still expires after the cache expire time, which should be longer than the maximum.
+     *
+     * @param minRefreshAfter the shortest refresh interval, used after a rotation
+     * @param maxRefreshAfter the longest refresh interval, reached while the keys are stable
+     * @return the builder
+     * @see #snapshot(boolean)
+     */
+    public JwkProviderBuilder snapshot(Duration minRefreshAfter, Duration maxRefreshAfter) {
+        Util.checkArgument(minRefreshAfter != null && maxRefreshAfter != null, "Both refresh interval bounds are required");
+        this.snapshot = true;
+        this.refreshAfter = minRefreshAfter;
+        this.maxRefreshAfter = maxRefreshAfter;
+        return this;
+    }
+
+    /**
+     * Refreshes the snapshot ahead of expiration on the given scheduler, whether it is used or not,
+     * instead of only when a lookup finds it older than the refresh interval. Requires
+     * {@link #snapshot(Duration)} or {@link #snapshot(Duration, Duration)} and a url, otherwise
+     * {@link #build()} fails rather than ignore the scheduler. Give the same scheduler, such as {@link RefreshScheduler#shared()},
+     * to every provider so that all their refresh deadlines are held by a single timing wheel.
+     *
+     * @param refreshScheduler the scheduler running the refreshes
+     * @return the builder
+     * @see SnapshotJwkProvider
+     */
+    public JwkProviderBuilder refreshScheduler(RefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+        return this;
+    }
+
+    /**
+     * Toggle sharing of the provider across the JVM. When enabled, every provider built for the same
+     * url with the same configuration is backed by a single underlying provider, so they share one
+     * cache, one rate limit and one fetch of the jwks. By default, each provider is independent.
+     *
+     * <p>A shared provider is a {@link SharedJwkProvider}; call {@link SharedJwkProvider#close()}
+     * when it is no longer needed so the underlying provider is released once its last user is
+     * closed. A custom {@link JwksHttpClient} or {@link JwksParser} is compared by {@code equals},
+     * so providers using different instances of them are not shared.</p>
+     *
+     * @param shared if the provider should be shared with identically configured providers
+     * @return the builder
+     */
+    public JwkProviderBuilder shared(boolean shared) {
+        this.shared = shared;
+        return this;
+    }
+
     /**
      * Creates a {@link JwkProvider}
      *
-     * @return a newly created {@link JwkProvider}
+     * @return a newly created {@link JwkProvider}, or a {@link SharedJwkProvider} if sharing is enabled
+     * @throws IllegalStateException if a refresh scheduler is set without a snapshot refresh interval
      */
     public JwkProvider build() {
-        JwkProvider urlProvider;
-        if (this.httpClient != null) {
-            urlProvider = new UrlJwkProvider(url, this.httpClient);
-        } else {
-            urlProvider = new UrlJwkProvider(url, connectTimeout, readTimeout, proxy, headers);
+        if (refreshScheduler != null && file != null) {
+            throw new IllegalStateException("A refresh scheduler cannot be used with a file");
+        }
+        if (refreshScheduler != null && refreshAfter == null) {
+            throw new IllegalStateException("A refresh scheduler requires snapshot(Duration) to be set");
+        }
+        if (shared) {
+            // urls are compared by their text, as URL.equals resolves hostnames
+            List<String> mirrorUrls = null;
+            if (mirrors != null) {
+                mirrorUrls = new ArrayList<>(mirrors.size());
+                for (URL mirror : mirrors) {
+                    mirrorUrls.add(mirror.toExternalForm());
+                }
+            }
+            List<Object> configuration = Arrays.asList(url != null ? url.toString() : file.toAbsolutePath().toString(), cached, cached ? cacheSize : null,
+                    cached ? expiresIn : null, cached ? cache : null, rateLimited, rateLimited ? bucketSpec : null, httpClient,
+                    httpClient == null ? proxy : null, httpClient == null ? connectTimeout : null,
+                    httpClient == null ? readTimeout : null, httpClient == null ? headers : null, parser, lazyParsing,
+                    memorySensitive, gracePeriod, validationPolicy, certificateRefreshAhead, mirrorUrls, hedgeDelay, bulkhead, store != null ? store.toAbsolutePath().toString() : null,
+                    sharedCache, sharedCacheTtl, relay, prefetch, snapshot, refreshAfter, maxRefreshAfter, refreshScheduler);
+            return SharedJwkProvider.acquire(configuration, this::buildProvider);
+        }
+        return buildProvider();
+    }
+
+    private JwkProvider buildProvider() {
+        if (file != null) {
+            FileJwkProvider fileProvider = new FileJwkProvider(file, parser, true);
+            return prefetch ? new PrefetchingJwkProvider(fileProvider, prefetch(fileProvider, null)) : fileProvider;
+        }
+        JwkSetProvider source = buildUrlProvider();
+        if (this.snapshot) {
+            Duration snapshotExpiresIn = cached ? expiresIn : Duration.ZERO;
+            SnapshotJwkProvider snapshotProvider = maxRefreshAfter != null ?
+                    new SnapshotJwkProvider(source, snapshotExpiresIn, new AdaptiveRefreshInterval(refreshAfter, maxRefreshAfter),
+                            rateLimited ? bucket : null, refreshScheduler) :
+                    new SnapshotJwkProvider(source, snapshotExpiresIn, refreshAfter, rateLimited ? bucket : null, refreshScheduler);
+            if (this.prefetch) {
+                return new PrefetchingJwkProvider(snapshotProvider, prefetch(snapshotProvider, null));
+            }
+            return snapshotProvider;
         }
+        JwkProvider urlProvider = source;
         if (this.rateLimited) {
-            urlProvider = new RateLimitedJwkProvider(urlProvider, bucket);
+            urlProvider = new RateLimitedJwkSetProvider(source, bucket);
         }
+        CachedJwkProvider cachedProvider = null;
         if (this.cached) {
-            urlProvider = new GuavaCachedJwkProvider(urlProvider, cacheSize, expiresIn);
+            cachedProvider = cache != null ? new CachedJwkProvider(urlProvider, cache) :
+                    new GuavaCachedJwkProvider(urlProvider, cacheSize, expiresIn);
+            // with lazy parsing, only the keys that are requested get parsed and cached
+            cachedProvider.setBulkLoading(!lazyParsing || validationPolicy != null);
+            cachedProvider.setCertificateExpiry(certificateRefreshAhead);
+            urlProvider = cachedProvider;
+        }
+        if (this.prefetch) {
+            urlProvider = new PrefetchingJwkProvider(urlProvider, prefetch(source, cachedProvider));
         }
         return urlProvider;
     }
+
+    private UrlJwkProvider buildUrlProvider() {
+        UrlJwkProvider urlJwkProvider;
+        JwksHttpClient client = buildHttpClient();
+        SharedCacheJwksHttpClient sharedCacheClient = null;
+        if (this.sharedCache != null) {
+            sharedCacheClient = new SharedCacheJwksHttpClient(client, sharedCache, sharedCacheTtl, System::currentTimeMillis, true);
+            client = sharedCacheClient;
+        }
+        if (client != null) {
+            urlJwkProvider = new UrlJwkProvider(url, client, parser);
+        } else {
+            urlJwkProvider = new UrlJwkProvider(url, connectTimeout, readTimeout, proxy, headers, parser);
+        }
+        urlJwkProvider.setLazyParsing(lazyParsing && validationPolicy == null);
+        urlJwkProvider.setMemorySensitive(memorySensitive);
+        urlJwkProvider.setGracePeriod(gracePeriod);
+        urlJwkProvider.setValidationPolicy(validationPolicy);
+        urlJwkProvider.setPublisher(buildPublisher(sharedCacheClient));
+        return urlJwkProvider;
+    }
+
+    /**
+     * Returns what the url provider publishes the documents it accepts to, or null if there is none.
+     */
+    private Consumer<String> buildPublisher(final SharedCacheJwksHttpClient sharedCacheClient) {
+        if (sharedCacheClient == null && this.store == null && this.relay == null) {
+            return null;
+        }
+        final URL url = this.url;
+        final Path store = this.store;
+        final JwksRelayServer relay = this.relay;
+        return document -> {
+            if (sharedCacheClient != null) {
+                sharedCacheClient.accepted(url, document);
+            }
+            if (store != null) {
+                MappedJwkStore.publish(store, document);
+            }
+            if (relay != null) {
+                relay.update(document);
+            }
+        };
+    }
+
+    /**
+     * Returns the client fetching the jwks, or null to let the url provider create its default client.
+     */
+    private JwksHttpClient buildHttpClient() {
+        boolean hedged = this.mirrors != null && !this.mirrors.isEmpty();
+        // the shared cache wraps the client, so the default one is created here
+        if (!hedged && this.bulkhead == null && this.sharedCache == null) {
+            return this.httpClient;
+        }
+        JwksHttpClient client = this.httpClient != null ? this.httpClient :
+                new DefaultJwksHttpClient(connectTimeout, readTimeout, proxy, headers);
+        if (hedged) {
+            List<URL> urls = new ArrayList<>();
+            urls.add(url);
+            urls.addAll(mirrors);
+            client = new HedgingJwksHttpClient(client, urls, hedgeDelay);
+        }
+        if (this.bulkhead != null) {
+            client = bulkhead.limiting(client);
+        }
+        return client;
+    }
+
+    private static CompletableFuture<Void> prefetch(final JwkSetProvider source, final CachedJwkProvider cachedProvider) {
+        return CompletableFuture.runAsync(FetchExecutor.background(() -> {
+            List<Jwk> jwks;
+            try {
+                jwks = source instanceof UrlJwkProvider ? ((UrlJwkProvider) source).warmUp() : source.getAll();
+            } catch (JwkException e) {
+                throw new CompletionException(e);
+            }
+            for (Jwk jwk : jwks) {
+                try {
+                    jwk.getPublicKey();
+                } catch (InvalidPublicKeyException ignored) {
+                    // keys that cannot be used for verification are still served as they are
+                }
+            }
+            if (cachedProvider != null) {
+                cachedProvider.putAll(jwks);
+            }
+        }), FetchExecutor.shared());
+    }
 }
@@ -0,0 +1,106 @@
+package com.auth0.jwk;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Registry of {@link JwkProvider}s for many issuers, such as the tenants of a multi-tenant service.
+ *
+ * <p>Providers are created on first use, keyed by their JWKS url, and share the registry's HTTP
+ * client, parser and refresh scheduler. The registry bounds the number of providers it holds and
+ * discards providers that have not been used for a while; a discarded provider is rebuilt
+ * transparently the next time its issuer is requested.</p>
+ *
+ * <pre>{@code
+ * JwkProviderRegistry registry = new JwkProviderRegistryBuilder()
+ *     .maxProviders(2_000)
+ *     .evictIdleAfter(Duration.ofHours(1))
+ *     .build();
+ *
+ * Jwk jwk = registry.get("https://tenant.auth0.com/", kid);
+ * }</pre>
+ *
+ * @see JwkProviderRegistryBuilder
+ */
+@SuppressWarnings("WeakerAccess")
+public class JwkProviderRegistry {
+
+    private final LoadingCache<String, JwkProvider> providers;
+
+    JwkProviderRegistry(final Function<URL, JwkProvider> factory, long maxProviders, Duration idleTimeout) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (maxProviders > 0) {
+            builder.maximumSize(maxProviders);
+        }
+        if (idleTimeout != null) {
+            builder.expireAfterAccess(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        this.providers = builder.build(new CacheLoader<String, JwkProvider>() {
+            @Override
+            public JwkProvider load(String url) throws Exception {
+                return factory.apply(new URL(url));
+            }
+        });
+    }
+
+    /**
+     * Returns the provider for the given issuer, creating it if needed. The jwks url is derived from
+     * the issuer the same way as {@link UrlJwkProvider#UrlJwkProvider(String)} does.
+     *
+     * @param issuer the issuer or domain where the jwks is published
+     * @return the provider for the issuer
+     * @throws IllegalArgumentException if the issuer is not a valid domain
+     */
+    public JwkProvider forIssuer(String issuer) {
+        return forUrl(UrlJwkProvider.urlForDomain(issuer));
+    }
+
+    /**
+     * Returns the provider for the given jwks url, creating it if needed.
+     *
+     * @param url the url of the jwks
+     * @return the provider for the url
+     */
+    public JwkProvider forUrl(URL url) {
+        Util.checkArgument(url != null, "A non-null url is required");
+        return providers.getUnchecked(url.toString());
+    }
+
+    /**
+     * Looks up a key of the given issuer.
+     *
+     * @param issuer the issuer or domain where the jwks is published
+     * @param keyId  value of the kid found in a JWT
+     * @return a JWK
+     * @throws JwkException if the key cannot be obtained
+     * @see #forIssuer(String)
+     */
+    public Jwk get(String issuer, String keyId) throws JwkException {
+        return forIssuer(issuer).get(keyId);
+    }
+
+    /**
+     * Discards the provider of the given jwks url, if any. It will be rebuilt on its next use.
+     *
+     * @param url the url of the jwks
+     */
+    public void invalidate(URL url) {
+        providers.invalidate(url.toString());
+    }
+
+    /**
+     * Returns the number of providers currently held by the registry.
+     *
+     * @return the number of providers
+     */
+    public long size() {
+        providers.cleanUp();
+        return providers.size();
+    }
+}
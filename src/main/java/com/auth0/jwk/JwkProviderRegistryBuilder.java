@@ -0,0 +1,296 @@
+package com.auth0.jwk;
+
+import java.net.Proxy;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * JwkProviderRegistry builder.
+ * <br><br> Every provider of the registry is configured the same way as a provider created by
+ * {@link JwkProviderBuilder}, and all of them share a single HTTP client, parser and refresh scheduler.
+ */
+@SuppressWarnings("WeakerAccess")
+public class JwkProviderRegistryBuilder {
+
+    private Proxy proxy;
+    private Duration expiresIn;
+    private Integer connectTimeout;
+    private Integer readTimeout;
+    private long cacheSize;
+    private boolean cached;
+    private long bucketSize;
+    private long refillRate;
+    private TimeUnit refillUnit;
+    private boolean rateLimited;
+    private Map<String, String> headers;
+    private JwksHttpClient httpClient;
+    private JwksParser parser;
+    private boolean lazyParsing;
+    private boolean memorySensitive;
+    private FetchBulkhead bulkhead;
+    private Duration refreshAfter;
+    private RefreshScheduler refreshScheduler;
+    private long maxProviders;
+    private Duration idleTimeout;
+
+    /**
+     * Creates a new registry builder using the same defaults as {@link JwkProviderBuilder} for each
+     * provider, no bound on the number of providers and no idle eviction.
+     */
+    public JwkProviderRegistryBuilder() {
+        this.cached = true;
+        this.expiresIn = Duration.ofHours(10);
+        this.cacheSize = 5;
+        this.rateLimited = true;
+        this.bucketSize = 10;
+        this.refillRate = 1;
+        this.refillUnit = TimeUnit.MINUTES;
+    }
+
+    /**
+     * Toggle the cache of each provider.
+     *
+     * @param cached if the providers should cache jwks
+     * @return the builder
+     * @see JwkProviderBuilder#cached(boolean)
+     */
+    public JwkProviderRegistryBuilder cached(boolean cached) {
+        this.cached = cached;
+        return this;
+    }
+
+    /**
+     * Enable the cache of each provider specifying size and expire time.
+     *
+     * @param cacheSize number of jwk to cache per provider
+     * @param expiresIn amount of time the jwk will be cached
+     * @return the builder
+     * @see JwkProviderBuilder#cached(long, Duration)
+     */
+    public JwkProviderRegistryBuilder cached(long cacheSize, Duration expiresIn) {
+        this.cached = true;
+        this.cacheSize = cacheSize;
+        this.expiresIn = expiresIn;
+        return this;
+    }
+
+    /**
+     * Toggle the rate limit of each provider.
+     *
+     * @param rateLimited if the providers should rate limit jwks
+     * @return the builder
+     * @see JwkProviderBuilder#rateLimited(boolean)
+     */
+    public JwkProviderRegistryBuilder rateLimited(boolean rateLimited) {
+        this.rateLimited = rateLimited;
+        return this;
+    }
+
+    /**
+     * Enable the rate limit of each provider. Every provider gets its own bucket.
+     *
+     * @param bucketSize max number of jwks to deliver in the given rate.
+     * @param refillRate amount of time to wait before a jwk can the jwk will be cached
+     * @param unit       unit of time for the expire of jwk
+     * @return the builder
+     * @see JwkProviderBuilder#rateLimited(long, long, TimeUnit)
+     */
+    public JwkProviderRegistryBuilder rateLimited(long bucketSize, long refillRate, TimeUnit unit) {
+        this.rateLimited = true;
+        this.bucketSize = bucketSize;
+        this.refillRate = refillRate;
+        this.refillUnit = unit;
+        return this;
+    }
+
+    /**
+     * Sets the proxy used by the shared default HTTP client.
+     *
+     * @param proxy proxy server to use when making connections
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder proxied(Proxy proxy) {
+        this.proxy = proxy;
+        return this;
+    }
+
+    /**
+     * Sets the connect and read timeout values of the shared default HTTP client.
+     *
+     * @param connectTimeout connection timeout in milliseconds.
+     * @param readTimeout    read timeout in milliseconds.
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder timeouts(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the headers sent by the shared default HTTP client.
+     *
+     * @param headers a map of header keys to values to send on the request.
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder headers(Map<String, String> headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP client shared by every provider. When set, {@link #proxied(Proxy)},
+     * {@link #timeouts(int, int)} and {@link #headers(Map)} are ignored.
+     *
+     * @param httpClient the HTTP client to use for fetching JWKS
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder httpClient(JwksHttpClient httpClient) {
+        this.httpClient = httpClient;
+        return this;
+    }
+
+    /**
+     * Sets the parser shared by every provider.
+     *
+     * @param parser the parser to use
+     * @return the builder
+     * @see JwkProviderBuilder#parser(JwksParser)
+     */
+    public JwkProviderRegistryBuilder parser(JwksParser parser) {
+        this.parser = parser;
+        return this;
+    }
+
+    /**
+     * Toggle lazy parsing of the jwks of each provider.
+     *
+     * @param lazyParsing if keys should only be parsed when requested
+     * @return the builder
+     * @see JwkProviderBuilder#lazyParsing(boolean)
+     */
+    public JwkProviderRegistryBuilder lazyParsing(boolean lazyParsing) {
+        this.lazyParsing = lazyParsing;
+        return this;
+    }
+
+    /**
+     * Toggle the memory sensitive mode of each provider, so that the parsed keys of issuers that are
+     * not in use can be reclaimed when the heap runs low.
+     *
+     * @param memorySensitive if parsed and public keys should be reclaimable under memory pressure
+     * @return the builder
+     * @see JwkProviderBuilder#memorySensitive(boolean)
+     */
+    public JwkProviderRegistryBuilder memorySensitive(boolean memorySensitive) {
+        this.memorySensitive = memorySensitive;
+        return this;
+    }
+
+    /**
+     * Makes the fetches of every provider go through the given bulkhead, bounding the number of jwks
+     * fetches in flight across all issuers.
+     *
+     * @param bulkhead the bulkhead limiting the fetches
+     * @return the builder
+     * @see JwkProviderBuilder#bulkhead(FetchBulkhead)
+     */
+    public JwkProviderRegistryBuilder bulkhead(FetchBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+        return this;
+    }
+
+    /**
+     * Makes each provider serve its keys from a snapshot of the whole jwks, refreshed ahead of
+     * expiration on the registry's refresh scheduler, so that the refresh deadlines of all issuers
+     * share a single timing wheel.
+     *
+     * @param refreshAfter age of a snapshot after which it is refreshed
+     * @return the builder
+     * @see JwkProviderBuilder#snapshot(Duration)
+     * @see #refreshScheduler(RefreshScheduler)
+     */
+    public JwkProviderRegistryBuilder snapshot(Duration refreshAfter) {
+        Util.checkArgument(refreshAfter != null && !refreshAfter.isNegative() && !refreshAfter.isZero(), "A positive refresh interval is required");
+        this.refreshAfter = refreshAfter;
+        return this;
+    }
+
+    /**
+     * Sets the scheduler running the refreshes of every provider. Defaults to
+     * {@link RefreshScheduler#shared()}. Only used with {@link #snapshot(Duration)}.
+     *
+     * @param refreshScheduler the scheduler shared by the providers
+     * @return the builder
+     * @see JwkProviderBuilder#refreshScheduler(RefreshScheduler)
+     */
+    public JwkProviderRegistryBuilder refreshScheduler(RefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+        return this;
+    }
+
+    /**
+     * Bounds the number of providers held by the registry. When exceeded, the least recently used
+     * providers are discarded. This caps memory by issuer; each provider still caches up to its own
+     * cache size.
+     *
+     * @param maxProviders the maximum number of providers
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder maxProviders(long maxProviders) {
+        Util.checkArgument(maxProviders > 0, "Invalid max providers value '" + maxProviders + "'. Must be a positive integer.");
+        this.maxProviders = maxProviders;
+        return this;
+    }
+
+    /**
+     * Discards providers that have not been used for the given amount of time.
+     *
+     * @param idleTimeout amount of time after which an unused provider is discarded
+     * @return the builder
+     */
+    public JwkProviderRegistryBuilder evictIdleAfter(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * Creates a {@link JwkProviderRegistry}
+     *
+     * @return a newly created {@link JwkProviderRegistry}
+     */
+    public JwkProviderRegistry build() {
+        if (refreshScheduler != null && refreshAfter == null) {
+            throw new IllegalStateException("A refresh scheduler requires snapshot(Duration) to be set");
+        }
+        final RefreshScheduler sharedScheduler = refreshAfter == null ? null :
+                refreshScheduler != null ? refreshScheduler : RefreshScheduler.shared();
+        final JwksHttpClient sharedClient = httpClient != null ? httpClient :
+                new DefaultJwksHttpClient(connectTimeout, readTimeout, proxy, headers);
+        final JwksParser sharedParser = parser != null ? parser : UrlJwkProvider.defaultParser();
+        Function<URL, JwkProvider> factory = url -> {
+            JwkProviderBuilder builder = new JwkProviderBuilder(url)
+                    .httpClient(sharedClient)
+                    .parser(sharedParser)
+                    .lazyParsing(lazyParsing)
+                    .memorySensitive(memorySensitive)
+                    .bulkhead(bulkhead)
+                    .cached(cached)
+                    .rateLimited(rateLimited);
+            if (cached) {
+                builder.cached(cacheSize, expiresIn);
+            }
+            if (rateLimited) {
+                builder.rateLimited(bucketSize, refillRate, refillUnit);
+            }
+            if (sharedScheduler != null) {
+                builder.snapshot(refreshAfter).refreshScheduler(sharedScheduler);
+            }
+            return builder.build();
+        };
+        return new JwkProviderRegistry(factory, maxProviders, idleTimeout);
+    }
+}
@@ -0,0 +1,18 @@
+package com.auth0.jwk;
+
+import java.util.List;
+
+/**
+ * Provider of Jwk that can also load the complete set of keys it serves.
+ */
+@SuppressWarnings("WeakerAccess")
+public interface JwkSetProvider extends JwkProvider {
+    /**
+     * Loads every key currently published by this provider's source. Note that implementations are
+     * synchronous (blocking) and do not return a cached copy.
+     *
+     * @return the keys
+     * @throws SigningKeyNotFoundException if the keys cannot be loaded
+     */
+    List<Jwk> getAll() throws JwkException;
+}
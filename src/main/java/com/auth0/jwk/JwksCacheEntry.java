@@ -0,0 +1,62 @@
+package com.auth0.jwk;
+
+/**
+ * A raw jwks document held by a {@link JwksSharedCache}, with the validators sent by the identity
+ * provider and the times it was fetched and expires at. Times are in milliseconds since the epoch,
+ * so that they can be compared across nodes.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class JwksCacheEntry {
+
+    private final String body;
+    private final String eTag;
+    private final String lastModified;
+    private final long fetchedAt;
+    private final long expiresAt;
+
+    /**
+     * Creates a new entry
+     *
+     * @param body         the jwks document
+     * @param eTag         the value of the ETag header of the response, or null
+     * @param lastModified the value of the Last-Modified header of the response, or null
+     * @param fetchedAt    when the document was fetched, in milliseconds since the epoch
+     * @param expiresAt    when the document expires, in milliseconds since the epoch
+     */
+    public JwksCacheEntry(String body, String eTag, String lastModified, long fetchedAt, long expiresAt) {
+        Util.checkArgument(body != null, "A non-null body is required");
+        this.body = body;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.fetchedAt = fetchedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @param now the current time, in milliseconds since the epoch
+     * @return whether the document has expired
+     */
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,176 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index over a raw JWKS document that maps each kid to the range of the document holding its key.
+ *
+ * <p>The document is scanned once, only reading the {@code kid} of every entry and skipping over
+ * everything else. An entry is parsed into a {@link Jwk} the first time it is requested, and the
+ * result is kept for subsequent lookups, so large key sets of which only a few keys are used never
+ * pay for the unused ones.</p>
+ */
+final class JwksIndex {
+
+    private final String json;
+    private final String[] kids;
+    private final int[] starts;
+    private final int[] ends;
+    private final Map<String, Integer> positions;
+    private final AtomicReferenceArray<Jwk> materialized;
+
+    private JwksIndex(String json, List<String> kids, List<int[]> ranges) {
+        this.json = json;
+        int size = kids.size();
+        this.kids = kids.toArray(new String[size]);
+        this.starts = new int[size];
+        this.ends = new int[size];
+        Map<String, Integer> positions = new HashMap<>(Math.max(4, (int) (size / 0.75f) + 1));
+        for (int i = 0; i < size; i++) {
+            starts[i] = ranges.get(i)[0];
+            ends[i] = ranges.get(i)[1];
+            if (this.kids[i] != null && !positions.containsKey(this.kids[i])) {
+                positions.put(this.kids[i], i);
+            }
+        }
+        this.positions = positions;
+        this.materialized = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Scans the given JWKS document and indexes its keys by kid.
+     *
+     * @param json the JWKS document
+     * @return the index, empty if the document has no keys
+     * @throws IOException if the document is not valid JSON or is not a JWKS document
+     */
+    static JwksIndex scan(String json) throws IOException {
+        if (json == null) {
+            throw new IOException("Cannot parse a null JSON document");
+        }
+        List<String> kids = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        JsonReader reader = new JsonReader(json);
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String name = reader.readString();
+                reader.expect(':');
+                if ("keys".equals(name) && reader.peek() == '[') {
+                    kids.clear();
+                    ranges.clear();
+                    scanKeys(reader, kids, ranges);
+                } else if ("keys".equals(name) && reader.peek() != 'n') {
+                    throw new IOException("The 'keys' member of the JWKS document is not an array");
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        reader.expectEnd();
+        return new JwksIndex(json, kids, ranges);
+    }
+
+    private static void scanKeys(JsonReader reader, List<String> kids, List<int[]> ranges) throws IOException {
+        reader.expect('[');
+        if (reader.consume(']')) {
+            return;
+        }
+        do {
+            if (reader.peek() != '{') {
+                throw new IOException("The 'keys' member of the JWKS document contains a non-object entry");
+            }
+            int start = reader.position();
+            String kid = null;
+            reader.expect('{');
+            if (!reader.consume('}')) {
+                do {
+                    String name = reader.readString();
+                    reader.expect(':');
+                    if ("kid".equals(name) && reader.peek() == '"') {
+                        kid = reader.readString();
+                    } else {
+                        reader.skipValue();
+                    }
+                } while (reader.consume(','));
+                reader.expect('}');
+            }
+            kids.add(kid);
+            ranges.add(new int[]{start, reader.position()});
+        } while (reader.consume(','));
+        reader.expect(']');
+    }
+
+    int size() {
+        return kids.length;
+    }
+
+    /**
+     * Returns the kid of the key at the given position.
+     *
+     * @param position the position of the key in the document
+     * @return the kid, or null if the key has none
+     */
+    String kid(int position) {
+        return kids[position];
+    }
+
+    /**
+     * Returns the raw JSON object of the key at the given position.
+     *
+     * @param position the position of the key in the document
+     * @return the part of the document holding the key
+     */
+    String entry(int position) {
+        return json.substring(starts[position], ends[position]);
+    }
+
+    /**
+     * Looks up a key following the same rules as {@link UrlJwkProvider}: a null kid matches the only
+     * key of a single-key document.
+     *
+     * @param keyId the kid to look for
+     * @return the key, or null if there is no such key
+     * @throws IOException              if the entry cannot be read
+     * @throws IllegalArgumentException if the entry is not a valid jwk
+     */
+    Jwk get(String keyId) throws IOException {
+        if (keyId == null) {
+            return kids.length == 1 ? materialize(0) : null;
+        }
+        Integer position = positions.get(keyId);
+        return position == null ? null : materialize(position);
+    }
+
+    /**
+     * Materializes every key of the document.
+     */
+    List<Jwk> getAll() throws IOException {
+        List<Jwk> jwks = new ArrayList<>(kids.length);
+        for (int i = 0; i < kids.length; i++) {
+            jwks.add(materialize(i));
+        }
+        return Collections.unmodifiableList(jwks);
+    }
+
+    private Jwk materialize(int position) throws IOException {
+        Jwk jwk = materialized.get(position);
+        if (jwk == null) {
+            JsonReader reader = new JsonReader(json, starts[position], ends[position]);
+            Map<String, Object> values = reader.readObject();
+            reader.expectEnd();
+            jwk = Jwk.fromValues(values);
+            if (!materialized.compareAndSet(position, null, jwk)) {
+                jwk = materialized.get(position);
+            }
+        }
+        return jwk;
+    }
+}
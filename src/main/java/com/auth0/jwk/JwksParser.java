@@ -0,0 +1,33 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abstraction for turning a JWKS JSON document into the raw attribute maps of its keys.
+ *
+ * <p>Implementations are expected to be thread-safe and stateless so that a single instance
+ * can be shared by every provider in the application. Two implementations are shipped:</p>
+ * <ul>
+ *   <li>{@link JacksonJwksParser}, backed by one Jackson reader shared across all providers</li>
+ *   <li>{@link SimpleJwksParser}, a small built-in parser with no third-party dependencies</li>
+ * </ul>
+ *
+ * <p>When no parser is configured, the Jackson implementation is used if Jackson is available
+ * on the classpath, otherwise the built-in one.</p>
+ *
+ * @see JwkProviderBuilder#parser(JwksParser)
+ */
+@FunctionalInterface
+public interface JwksParser {
+
+    /**
+     * Parses the given JWKS document and returns the entries of its {@code keys} member.
+     *
+     * @param json the JWKS JSON document
+     * @return the attribute maps of each key, or null if the document has no {@code keys} member
+     * @throws IOException if the document is not valid JSON or is not a JWKS document
+     */
+    List<Map<String, Object>> parseKeys(String json) throws IOException;
+}
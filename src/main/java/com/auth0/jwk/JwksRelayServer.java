@@ -0,0 +1,223 @@
+package com.auth0.jwk;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server relaying the jwks fetched by a provider to the other processes of the host,
+ * such as non-JVM services, so that the host fetches the jwks from the identity provider only once.
+ *
+ * <p>The server holds the last fetched document, already encoded, and writes the same bytes to every
+ * client. It sends an {@code ETag} derived from the content and the {@code Last-Modified} time of the
+ * last change, and answers conditional requests ({@code If-None-Match} and {@code If-Modified-Since})
+ * with {@code 304 Not Modified}. Until a document was fetched, it answers {@code 503 Service Unavailable}.</p>
+ *
+ * <p>The document is updated by the client returned by {@link #relaying(JwksHttpClient)} or by
+ * {@link JwkProviderBuilder#relayTo(JwksRelayServer)}; enabling {@link JwkProviderBuilder#prefetch(boolean)}
+ * makes it available as soon as the provider is built. Call {@link #close()} to stop the server.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class JwksRelayServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Document document;
+
+    private JwksRelayServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server serving the jwks on the well-known path {@code /.well-known/jwks.json}.
+     *
+     * @param address the address to listen on, usually a loopback address
+     * @return the started server
+     * @throws IOException if the server cannot listen on the address
+     */
+    public static JwksRelayServer start(InetSocketAddress address) throws IOException {
+        return start(address, UrlJwkProvider.WELL_KNOWN_JWKS_PATH);
+    }
+
+    /**
+     * Starts a server serving the jwks on the given path.
+     *
+     * @param address the address to listen on, usually a loopback address
+     * @param path    the path of the jwks
+     * @return the started server
+     * @throws IOException if the server cannot listen on the address
+     */
+    public static JwksRelayServer start(InetSocketAddress address, final String path) throws IOException {
+        Util.checkArgument(address != null, "A non-null address is required");
+        Util.checkArgument(path != null && path.startsWith("/"), "The path must start with '/'");
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2, new DaemonThreadFactory("jwks-relay"));
+        final JwksRelayServer relay = new JwksRelayServer(server, executor);
+        server.createContext(path, exchange -> {
+            try {
+                if (exchange.getRequestURI().getPath().equals(path)) {
+                    relay.handle(exchange);
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+        return relay;
+    }
+
+    /**
+     * @return the address the server listens on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Replaces the document served to clients. A document identical to the current one keeps its
+     * {@code ETag} and {@code Last-Modified} time, so clients do not download it again.
+     *
+     * @param jwks the jwks document
+     */
+    public void update(String jwks) {
+        Util.checkArgument(jwks != null, "A non-null document is required");
+        byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+        Document current = document;
+        if (current != null && Arrays.equals(current.body, body)) {
+            return;
+        }
+        document = new Document(body, Instant.now());
+    }
+
+    /**
+     * Returns a client that relays every jwks fetched through the given client. Documents are relayed
+     * as fetched, before any validation; {@link JwkProviderBuilder#relayTo(JwksRelayServer)} only
+     * relays the documents its provider accepts.
+     *
+     * @param client the client fetching the jwks
+     * @return the relaying client
+     */
+    public JwksHttpClient relaying(final JwksHttpClient client) {
+        Util.checkArgument(client != null, "A non-null client is required");
+        return new JwksHttpClient() {
+            @Override
+            public JwksHttpResponse fetch(URL url) throws IOException {
+                JwksHttpResponse response = client.fetch(url);
+                if (response.getBody() != null) {
+                    update(response.getBody());
+                }
+                return response;
+            }
+        };
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+        Document current = document;
+        if (current == null) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(503, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", current.eTag);
+        exchange.getResponseHeaders().set("Last-Modified", current.lastModified);
+        if (current.isNotModified(exchange.getRequestHeaders().getFirst("If-None-Match"),
+                exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (head) {
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, current.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(current.body);
+        }
+    }
+
+    /**
+     * A served document with its validators.
+     */
+    private static final class Document {
+        final byte[] body;
+        final String eTag;
+        final String lastModified;
+        final long lastModifiedSeconds;
+
+        Document(byte[] body, Instant modified) {
+            this.body = body;
+            this.eTag = eTag(body);
+            this.lastModifiedSeconds = modified.getEpochSecond();
+            this.lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(modified, ZoneOffset.UTC));
+        }
+
+        boolean isNotModified(String ifNoneMatch, String ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                // If-Modified-Since is ignored when If-None-Match is present
+                for (String candidate : ifNoneMatch.split(",")) {
+                    String tag = candidate.trim();
+                    if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (ifModifiedSince != null) {
+                try {
+                    long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+                    return lastModifiedSeconds <= since;
+                } catch (DateTimeParseException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private static String eTag(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform supports SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
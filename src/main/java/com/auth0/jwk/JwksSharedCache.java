@@ -0,0 +1,61 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Second-level cache of raw jwks documents, shared by every node of a cluster through an external
+ * store such as Redis or Memcached, so that a single node fetches the jwks from the identity
+ * provider in each time-to-live window.
+ *
+ * <p>It is consulted by {@link SharedCacheJwksHttpClient} before fetching the jwks. Failures of the
+ * store are not fatal: the document is then fetched from the identity provider. An in-process
+ * implementation, {@link InMemoryJwksSharedCache}, is available for tests.</p>
+ *
+ * @see JwkProviderBuilder#sharedCache(JwksSharedCache, Duration)
+ */
+public interface JwksSharedCache {
+
+    /**
+     * Returns the entry stored under the given key, whether or not it has expired.
+     *
+     * @param key the key of the entry, derived from the jwks url
+     * @return the entry, or null if there is none
+     * @throws IOException if the store cannot be reached
+     */
+    JwksCacheEntry get(String key) throws IOException;
+
+    /**
+     * Stores an entry under the given key, replacing any previous one.
+     *
+     * @param key       the key of the entry, derived from the jwks url
+     * @param entry     the entry
+     * @param retention how long the store should keep the entry; longer than its time to live, so
+     *                  that an expired entry can still be served while a single node refreshes it
+     * @throws IOException if the store cannot be reached
+     */
+    void put(String key, JwksCacheEntry entry, Duration retention) throws IOException;
+
+    /**
+     * Tries to acquire the lease allowing this node to refresh the entry stored under the given key,
+     * such as a {@code SET key NX PX lease} in Redis. The other nodes keep serving the expired entry
+     * until the lease is released by a refresh or expires. By default, every node may refresh.
+     *
+     * @param key   the key of the entry, derived from the jwks url
+     * @param lease how long the lease is held unless released
+     * @return whether this node acquired the lease
+     * @throws IOException if the store cannot be reached
+     */
+    default boolean tryLock(String key, Duration lease) throws IOException {
+        return true;
+    }
+
+    /**
+     * Releases the lease acquired by {@link #tryLock(String, Duration)} once the entry was refreshed.
+     *
+     * @param key the key of the entry, derived from the jwks url
+     * @throws IOException if the store cannot be reached
+     */
+    default void unlock(String key) throws IOException {
+    }
+}
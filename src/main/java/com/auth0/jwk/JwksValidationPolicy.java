@@ -0,0 +1,42 @@
+package com.auth0.jwk;
+
+/**
+ * Decides whether a fetched key set may replace the cached one, given how many of its keys could be
+ * turned into a public key. A rejected key set is discarded and the previous one is kept.
+ *
+ * @see JwkProviderBuilder#validateKeys(JwksValidationPolicy)
+ */
+@FunctionalInterface
+public interface JwksValidationPolicy {
+
+    /**
+     * @param valid   the number of keys whose public key was built
+     * @param invalid the number of keys whose public key could not be built
+     * @return whether the key set may be published
+     */
+    boolean accept(int valid, int invalid);
+
+    /**
+     * @return a policy accepting only key sets where every key is valid
+     */
+    static JwksValidationPolicy allKeysValid() {
+        return (valid, invalid) -> valid > 0 && invalid == 0;
+    }
+
+    /**
+     * @return a policy accepting key sets with at least one valid key; the invalid keys are published
+     * but fail right away when used
+     */
+    static JwksValidationPolicy anyKeyValid() {
+        return (valid, invalid) -> valid > 0;
+    }
+
+    /**
+     * @param ratio the minimum share of valid keys, between 0 and 1
+     * @return a policy accepting key sets with at least the given share of valid keys
+     */
+    static JwksValidationPolicy minValidRatio(final double ratio) {
+        Util.checkArgument(ratio >= 0 && ratio <= 1, "The ratio must be between 0 and 1");
+        return (valid, invalid) -> valid > 0 && valid >= ratio * (valid + invalid);
+    }
+}
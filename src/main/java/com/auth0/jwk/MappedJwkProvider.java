@@ -0,0 +1,168 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jwk provider that reads a {@link MappedJwkStore} written by another process of the same host.
+ *
+ * <p>The store is mapped read-only, so every process reading it shares the same copy of the key set
+ * in the page cache, and only one process fetches it. A key is parsed from the mapped memory the
+ * first time it is requested and kept until the store is replaced. When the writer replaces the
+ * store, the new file is mapped on the next lookup. The provider never performs network I/O; if
+ * the store does not exist yet, lookups fail until it is written.</p>
+ *
+ * @see MappedJwkStore#publishing(JwksHttpClient, Path)
+ */
+@SuppressWarnings("WeakerAccess")
+public class MappedJwkProvider implements JwkSetProvider {
+
+    private static final long RECHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path path;
+    private volatile View view;
+    private volatile long checkedAt;
+
+    /**
+     * Creates a provider reading the given store.
+     *
+     * @param path the store file
+     */
+    public MappedJwkProvider(Path path) {
+        Util.checkArgument(path != null, "A non-null path is required");
+        this.path = path.toAbsolutePath();
+        this.checkedAt = System.nanoTime();
+        try {
+            this.view = open(null);
+        } catch (SigningKeyNotFoundException ignored) {
+            // the store is mapped on the next lookup
+        }
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        View current = current();
+        Jwk jwk = current != null ? current.get(keyId) : null;
+        if (jwk == null && System.nanoTime() - checkedAt >= RECHECK_INTERVAL_NANOS) {
+            // the store may have been created, or replaced by a writer that did not flag the previous one
+            checkedAt = System.nanoTime();
+            View reopened = reopen(current);
+            if (reopened != current) {
+                jwk = reopened.get(keyId);
+            }
+        }
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found in store " + path + " with kid " + keyId, null);
+        }
+        return jwk;
+    }
+
+    @Override
+    public List<Jwk> getAll() throws JwkException {
+        View current = reopen(current());
+        if (current == null) {
+            throw new SigningKeyNotFoundException("No keys found in store " + path, null);
+        }
+        return current.getAll();
+    }
+
+    /**
+     * @return the generation of the mapped store, or 0 if no store was mapped yet
+     */
+    public long getGeneration() {
+        View current = view;
+        return current != null ? current.store.generation() : 0;
+    }
+
+    private View current() throws SigningKeyNotFoundException {
+        View current = view;
+        if (current != null && current.store.isSuperseded()) {
+            return reopen(current);
+        }
+        return current;
+    }
+
+    /**
+     * Maps the store again unless it is still the given one.
+     */
+    private synchronized View reopen(View seen) throws SigningKeyNotFoundException {
+        if (view != seen) {
+            return view;
+        }
+        View reopened = open(seen);
+        view = reopened;
+        return reopened;
+    }
+
+    private View open(View current) throws SigningKeyNotFoundException {
+        MappedJwkStore store;
+        try {
+            store = MappedJwkStore.open(path);
+        } catch (IOException e) {
+            throw new SigningKeyNotFoundException("Cannot read jwks store " + path, e);
+        }
+        if (store == null) {
+            return current;
+        }
+        if (current != null && current.store.generation() == store.generation()) {
+            // keep the keys already parsed
+            return current;
+        }
+        return new View(store);
+    }
+
+    private static Jwk parse(String json) throws SigningKeyNotFoundException {
+        try {
+            JsonReader reader = new JsonReader(json);
+            Map<String, Object> values = reader.readObject();
+            reader.expectEnd();
+            return Jwk.fromValues(values);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SigningKeyNotFoundException("Failed to parse jwk from json", e);
+        }
+    }
+
+    /**
+     * A mapped store and the keys parsed from it.
+     */
+    private static final class View {
+        final MappedJwkStore store;
+        final Map<String, Jwk> parsed = new ConcurrentHashMap<>();
+
+        View(MappedJwkStore store) {
+            this.store = store;
+        }
+
+        Jwk get(String keyId) throws SigningKeyNotFoundException {
+            String key = keyId == null ? CachedJwkProvider.NULL_KID_KEY : keyId;
+            Jwk jwk = parsed.get(key);
+            if (jwk == null) {
+                String json = store.find(keyId);
+                if (json == null) {
+                    return null;
+                }
+                jwk = parse(json);
+                Jwk previous = parsed.putIfAbsent(key, jwk);
+                if (previous != null) {
+                    jwk = previous;
+                }
+            }
+            return jwk;
+        }
+
+        List<Jwk> getAll() throws SigningKeyNotFoundException {
+            List<String> entries = store.entries();
+            List<Jwk> jwks = new ArrayList<>(entries.size());
+            for (String json : entries) {
+                jwks.add(parse(json));
+            }
+            return Collections.unmodifiableList(jwks);
+        }
+    }
+}
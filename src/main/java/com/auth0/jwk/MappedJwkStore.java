@@ -0,0 +1,341 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary key store that lets the processes of a host share a single copy of a jwks.
+ *
+ * <p>One process writes the store, typically with a provider built with
+ * {@link JwkProviderBuilder#publishTo(Path)} or by fetching the jwks through {@link #publishing(JwksHttpClient, Path)},
+ * and the others read it with a {@link MappedJwkProvider}, which maps the file read-only. The file
+ * holds a header, an open-addressing table indexing the keys by kid, and the raw JSON of every key,
+ * so a kid is looked up directly in the mapped memory without parsing the rest of the key set.</p>
+ *
+ * <p>A store is never modified in place: each write creates a new file with the next generation and
+ * atomically moves it over the previous one, so readers never observe a partially written store.
+ * The previous file is then flagged as superseded, which tells its readers to map the new file. This
+ * relies on replacing a file that is mapped by other processes, as POSIX file systems allow.</p>
+ *
+ * @see MappedJwkProvider
+ * @see JwkProviderBuilder#publishTo(Path)
+ */
+@SuppressWarnings("WeakerAccess")
+public final class MappedJwkStore {
+
+    private static final int MAGIC = 0x4A574B53; // "JWKS"
+    private static final int VERSION = 1;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int SUPERSEDED_OFFSET = 16;
+    private static final int COUNT_OFFSET = 20;
+    private static final int SLOTS_OFFSET = 24;
+    private static final int HEADER_SIZE = 28;
+    private static final int SLOT_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    private final long generation;
+    private final int count;
+    private final int slots;
+
+    private MappedJwkStore(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a jwks store");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported jwks store version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.generation = buffer.getLong(GENERATION_OFFSET);
+        this.count = buffer.getInt(COUNT_OFFSET);
+        this.slots = buffer.getInt(SLOTS_OFFSET);
+    }
+
+    /**
+     * Maps the given store read-only.
+     *
+     * @param path the store file
+     * @return the store, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is not a store
+     */
+    static MappedJwkStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedJwkStore(buffer);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the keys of the given jwks document to the store, replacing its previous content. Nothing
+     * is written if the store already holds the same keys, so readers keep their mapping and a fetch
+     * of an unchanged jwks does not sync the file system.
+     *
+     * @param path the store file
+     * @param jwks the jwks document
+     * @throws IOException if the document is not a valid jwks or the store cannot be written
+     */
+    public static void write(Path path, String jwks) throws IOException {
+        JwksIndex index = JwksIndex.scan(jwks);
+        if (index.size() == 0) {
+            throw new IOException("The jwks document has no keys");
+        }
+        ByteBuffer content = encode(index);
+        synchronized (MappedJwkStore.class) {
+            Path target = path.toAbsolutePath();
+            ByteBuffer current = readCurrent(target, content.limit());
+            if (current != null && current.limit() == content.limit() && sameKeys(current, content)) {
+                return;
+            }
+            long generation = current != null ? current.getLong(GENERATION_OFFSET) + 1 : 1;
+            content.putLong(GENERATION_OFFSET, generation);
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    while (content.hasRemaining()) {
+                        channel.write(content);
+                    }
+                    channel.force(true);
+                }
+                FileChannel previous = openForUpdate(target);
+                try {
+                    move(temp, target);
+                    if (previous != null) {
+                        ByteBuffer flag = ByteBuffer.allocate(4).putInt(0, 1);
+                        previous.write(flag, SUPERSEDED_OFFSET);
+                    }
+                } finally {
+                    if (previous != null) {
+                        previous.close();
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Returns a client that writes every jwks fetched through the given client to the store, so that
+     * the provider of one process keeps the store up to date for the others. A document that cannot
+     * be written is still returned to the caller. Documents are written as fetched, before any
+     * validation; {@link JwkProviderBuilder#publishTo(Path)} only writes the documents its provider
+     * accepts.
+     *
+     * @param client the client fetching the jwks
+     * @param path   the store file
+     * @return the publishing client
+     */
+    public static JwksHttpClient publishing(final JwksHttpClient client, final Path path) {
+        Util.checkArgument(client != null, "A non-null client is required");
+        Util.checkArgument(path != null, "A non-null path is required");
+        return new JwksHttpClient() {
+            @Override
+            public JwksHttpResponse fetch(URL url) throws IOException {
+                JwksHttpResponse response = client.fetch(url);
+                publish(path, response.getBody());
+                return response;
+            }
+        };
+    }
+
+    /**
+     * Writes the given document to the store, ignoring failures so that the readers keep the previous
+     * store.
+     */
+    static void publish(Path path, String jwks) {
+        try {
+            write(path, jwks);
+        } catch (IOException | RuntimeException ignored) {
+            // the readers keep the previous store
+        }
+    }
+
+    /**
+     * @return the generation of the store, incremented by every write
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * @return whether a newer store replaced this one
+     */
+    boolean isSuperseded() {
+        return buffer.getInt(SUPERSEDED_OFFSET) != 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Looks up a key following the same rules as {@link UrlJwkProvider}: a null kid matches the only
+     * key of a single-key store.
+     *
+     * @param keyId the kid to look for
+     * @return the JSON of the key, or null if there is no such key
+     */
+    String find(String keyId) {
+        if (keyId == null) {
+            return count == 1 ? entryAt(HEADER_SIZE + slots * SLOT_SIZE) : null;
+        }
+        byte[] kid = keyId.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(kid);
+        int mask = slots - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 4);
+            if (offset == 0) {
+                return null;
+            }
+            if (buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE) == hash && kidEquals(buffer, offset, kid)) {
+                return entryAt(offset);
+            }
+        }
+    }
+
+    /**
+     * @return the JSON of every key of the store
+     */
+    List<String> entries() {
+        List<String> entries = new ArrayList<>(count);
+        int offset = HEADER_SIZE + slots * SLOT_SIZE;
+        for (int i = 0; i < count; i++) {
+            entries.add(entryAt(offset));
+            int kidLength = buffer.getInt(offset);
+            offset += 4 + kidLength;
+            offset += 4 + buffer.getInt(offset);
+        }
+        return entries;
+    }
+
+    private String entryAt(int offset) {
+        int jsonOffset = offset + 4 + buffer.getInt(offset);
+        byte[] json = new byte[buffer.getInt(jsonOffset)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(jsonOffset + 4);
+        view.get(json);
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lays out the store: the header, the kid table and then, for every key, the length and UTF-8
+     * bytes of its kid followed by the length and UTF-8 bytes of its JSON. An empty kid is written for
+     * keys without one, which are not indexed. The generation is left to the caller.
+     */
+    private static ByteBuffer encode(JwksIndex index) {
+        int count = index.size();
+        int slots = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        byte[][] kids = new byte[count][];
+        byte[][] entries = new byte[count][];
+        int size = HEADER_SIZE + slots * SLOT_SIZE;
+        for (int i = 0; i < count; i++) {
+            String kid = index.kid(i);
+            kids[i] = kid == null ? new byte[0] : kid.getBytes(StandardCharsets.UTF_8);
+            entries[i] = index.entry(i).getBytes(StandardCharsets.UTF_8);
+            size += 8 + kids[i].length + entries[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(0).putInt(0).putInt(count).putInt(slots);
+        int offset = HEADER_SIZE + slots * SLOT_SIZE;
+        buffer.position(offset);
+        for (int i = 0; i < count; i++) {
+            if (index.kid(i) != null) {
+                int hash = Arrays.hashCode(kids[i]);
+                int slot = hash & (slots - 1);
+                while (buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 4) != 0
+                        && !kidEquals(buffer, buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 4), kids[i])) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                if (buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 4) == 0) {
+                    // the first key of a duplicated kid wins, as in the other providers
+                    buffer.putInt(HEADER_SIZE + slot * SLOT_SIZE, hash);
+                    buffer.putInt(HEADER_SIZE + slot * SLOT_SIZE + 4, offset);
+                }
+            }
+            buffer.putInt(kids[i].length).put(kids[i]).putInt(entries[i].length).put(entries[i]);
+            offset = buffer.position();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean kidEquals(ByteBuffer buffer, int offset, byte[] kid) {
+        if (buffer.getInt(offset) != kid.length) {
+            return false;
+        }
+        for (int i = 0; i < kid.length; i++) {
+            if (buffer.get(offset + 4 + i) != kid[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the current store through a channel rather than mapping it: the whole file if it has the
+     * given size and could hold the same keys, otherwise only its header.
+     *
+     * @return the bytes read, or null if there is no valid store to compare with
+     */
+    private static ByteBuffer readCurrent(Path path, int size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(channel.size() == size ? size : HEADER_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            // a missing or unreadable store is replaced
+            return null;
+        }
+    }
+
+    /**
+     * Compares two stores of the same size, ignoring their generation and superseded flag.
+     */
+    private static boolean sameKeys(ByteBuffer current, ByteBuffer content) {
+        if (current.getInt(SUPERSEDED_OFFSET) != 0) {
+            return false;
+        }
+        ByteBuffer currentKeys = current.duplicate();
+        currentKeys.position(COUNT_OFFSET);
+        ByteBuffer keys = content.duplicate();
+        keys.position(COUNT_OFFSET);
+        return currentKeys.equals(keys);
+    }
+
+    private static FileChannel openForUpdate(Path path) throws IOException {
+        try {
+            return FileChannel.open(path, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Jwk provider that started loading its keys as soon as it was built, and tells when they are ready.
+ *
+ * <p>Instances are created by {@link JwkProviderBuilder#build()} when
+ * {@link JwkProviderBuilder#prefetch(boolean)} is enabled. The jwks is fetched in the background,
+ * every {@link java.security.PublicKey} is built, and the caches of the provider are filled, so
+ * that the first tokens do not pay for the fetch. This is typically used to only report an
+ * application as ready once its keys are loaded:</p>
+ * <pre>{@code
+ * PrefetchingJwkProvider provider = (PrefetchingJwkProvider) new JwkProviderBuilder(domain)
+ *     .prefetch(true)
+ *     .build();
+ * provider.awaitReady(Duration.ofSeconds(10));
+ * }</pre>
+ * <p>Lookups can be made before the keys are ready; they behave as for a provider without prefetch.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class PrefetchingJwkProvider implements JwkProvider, AutoCloseable {
+
+    private final JwkProvider provider;
+    private final CompletableFuture<Void> readiness;
+
+    PrefetchingJwkProvider(JwkProvider provider, CompletableFuture<Void> readiness) {
+        this.provider = provider;
+        this.readiness = readiness;
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        return provider.get(keyId);
+    }
+
+    /**
+     * Returns a future completed once the keys are loaded, or completed exceptionally with the
+     * {@link JwkException} that prevented loading them.
+     *
+     * @return the readiness of the provider
+     */
+    public CompletableFuture<Void> readiness() {
+        return readiness;
+    }
+
+    /**
+     * @return true if the keys have been loaded successfully
+     */
+    public boolean isReady() {
+        return readiness.isDone() && !readiness.isCompletedExceptionally();
+    }
+
+    /**
+     * Blocks until the keys are loaded or the timeout elapses.
+     *
+     * @param timeout the maximum time to wait
+     * @return true if the keys are loaded, false if the timeout elapsed first
+     * @throws JwkException         if the keys could not be loaded
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    public boolean awaitReady(Duration timeout) throws JwkException, InterruptedException {
+        try {
+            readiness.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JwkException) {
+                throw (JwkException) e.getCause();
+            }
+            throw new JwkException("Unable to prefetch keys", e.getCause());
+        }
+    }
+
+    /**
+     * Closes the underlying provider if it holds resources, such as a watched file or scheduled
+     * refreshes.
+     */
+    @Override
+    public void close() {
+        Util.closeQuietly(provider);
+    }
+
+    @VisibleForTesting
+    JwkProvider getBaseProvider() {
+        return provider;
+    }
+}
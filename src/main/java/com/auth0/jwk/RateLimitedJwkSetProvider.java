@@ -0,0 +1,42 @@
+package com.auth0.jwk;
+
+import java.util.List;
+
+/**
+ * {@link RateLimitedJwkProvider} over a {@link JwkSetProvider}, so that fetching every key also
+ * consumes a token of the bucket.
+ */
+final class RateLimitedJwkSetProvider extends RateLimitedJwkProvider implements HoldingJwkSetProvider {
+
+    private final JwkSetProvider provider;
+    private final Bucket bucket;
+
+    RateLimitedJwkSetProvider(JwkSetProvider provider, Bucket bucket) {
+        super(provider, bucket);
+        this.provider = provider;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public List<Jwk> getAll() throws JwkException {
+        if (!bucket.consume()) {
+            throw new RateLimitReachedException(bucket.willLeakIn());
+        }
+        return provider.getAll();
+    }
+
+    @Override
+    public List<Jwk> getAllFor(String keyId) throws JwkException {
+        // a miss consumes a token whether or not it fetches, like a lookup through get() does
+        if (!bucket.consume()) {
+            throw new RateLimitReachedException(bucket.willLeakIn());
+        }
+        return provider instanceof HoldingJwkSetProvider ?
+                ((HoldingJwkSetProvider) provider).getAllFor(keyId) : provider.getAll();
+    }
+
+    @Override
+    public Jwk getRemoved(String keyId) {
+        return provider instanceof HoldingJwkSetProvider ? ((HoldingJwkSetProvider) provider).getRemoved(keyId) : null;
+    }
+}
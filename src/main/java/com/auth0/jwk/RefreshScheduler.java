@@ -0,0 +1,286 @@
+package com.auth0.jwk;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules the background refreshes of many providers on a hashed timing wheel, so that thousands
+ * of refresh deadlines cost a slot each instead of an entry in the heap of a scheduled executor.
+ *
+ * <p>The wheel is an array of buckets that a single timer thread visits once per tick. Scheduling
+ * and cancelling a task take constant time: the task is queued and then linked into the bucket of its
+ * deadline on the next tick, and a cancelled task is unlinked the same way. Deadlines are rounded up
+ * to the next tick, which is precise enough for refreshes measured in minutes or hours. Expired tasks
+ * run on a small fixed pool of daemon threads, never on the timer thread.</p>
+ *
+ * @see JwkProviderBuilder#refreshScheduler(RefreshScheduler)
+ */
+@SuppressWarnings("WeakerAccess")
+public class RefreshScheduler implements AutoCloseable {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final ExecutorService workers;
+    private final Thread timer;
+    private volatile boolean closed;
+    private long tick;
+
+    /**
+     * Creates a scheduler and starts its timer thread.
+     *
+     * @param tickDuration  the resolution of the scheduler
+     * @param ticksPerWheel the number of buckets of the wheel, rounded up to a power of two
+     * @param workers       the number of threads running the expired tasks
+     */
+    public RefreshScheduler(Duration tickDuration, int ticksPerWheel, int workers) {
+        Util.checkArgument(tickDuration != null && !tickDuration.isNegative() && !tickDuration.isZero(), "A positive tick duration is required");
+        Util.checkArgument(ticksPerWheel > 0 && ticksPerWheel <= 1 << 20, "Invalid ticks per wheel value '" + ticksPerWheel + "'. Must be between 1 and 2^20.");
+        Util.checkArgument(workers > 0, "Invalid workers value '" + workers + "'. Must be a positive integer.");
+        int size = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.workers = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("jwks-refresh"));
+        this.startTime = System.nanoTime();
+        this.timer = new DaemonThreadFactory("jwks-timer").newThread(this::run);
+        this.timer.start();
+    }
+
+    /**
+     * Returns the scheduler shared by the providers that do not use their own, with a resolution of
+     * one second and two worker threads.
+     *
+     * @return the shared scheduler
+     */
+    public static RefreshScheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay after which the task runs
+     * @return the handle cancelling the task
+     * @throws IllegalStateException if the scheduler was closed
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        Util.checkArgument(task != null, "A non-null task is required");
+        Util.checkArgument(delay != null && !delay.isNegative(), "A non-negative delay is required");
+        if (closed) {
+            throw new IllegalStateException("The scheduler is closed");
+        }
+        long deadline = System.nanoTime() - startTime + delay.toNanos();
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of tasks waiting to run
+     */
+    public int getScheduled() {
+        int scheduled = 0;
+        for (Timeout timeout : pending) {
+            if (!timeout.isCancelled()) {
+                scheduled++;
+            }
+        }
+        synchronized (wheel) {
+            for (Bucket bucket : wheel) {
+                scheduled += bucket.size;
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * Stops the timer thread and the workers. Tasks that did not run yet are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        timer.interrupt();
+        workers.shutdown();
+    }
+
+    private void run() {
+        while (!closed) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep = deadline - (System.nanoTime() - startTime);
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            synchronized (wheel) {
+                removeCancelled();
+                transferPending();
+                wheel[(int) (tick & mask)].expire(deadline);
+            }
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != INIT) {
+                continue;
+            }
+            long ticks = (timeout.deadline + tickNanos - 1) / tickNanos;
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            // a deadline already passed goes into the current bucket
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void execute(Timeout timeout) {
+        try {
+            workers.execute(() -> {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException ignored) {
+                    // a failing task must not stop the others
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the scheduler was closed
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        private final RefreshScheduler scheduler;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        // guarded by the wheel
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(RefreshScheduler scheduler, Runnable task, long deadline) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it did not run yet.
+         *
+         * @return true if the task was cancelled by this call
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            scheduler.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * @return whether the task was cancelled
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    /**
+     * Doubly linked list of the tasks whose deadline falls in a slot of the wheel.
+     */
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+        private int size;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+            size++;
+        }
+
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(INIT, EXPIRED)) {
+                        execute(timeout);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            size--;
+        }
+    }
+
+    private static final class Shared {
+        static final RefreshScheduler INSTANCE = new RefreshScheduler(Duration.ofSeconds(1), 512, 2);
+    }
+}
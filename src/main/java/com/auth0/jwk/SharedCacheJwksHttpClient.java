@@ -0,0 +1,165 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link JwksHttpClient} that consults a {@link JwksSharedCache} before fetching the jwks, so that the
+ * nodes of a cluster share the documents fetched by any of them.
+ *
+ * <p>A document found in the shared cache is returned as long as it has not expired. Once it has,
+ * the node that acquires the lease of the entry fetches the jwks and stores it for the others, which
+ * keep getting the expired document meanwhile; a single node therefore hits the identity provider in
+ * each time-to-live window. When the fetch fails, the expired document is returned rather than the
+ * error. When the shared cache itself fails, the jwks is fetched directly.</p>
+ *
+ * <p>A client built by {@link JwkProviderBuilder#sharedCache(JwksSharedCache, Duration)} only stores a
+ * fetched document once the provider accepted it, so that a document failing to parse or rejected by
+ * the validation policy is not served to the other nodes.</p>
+ *
+ * @see JwkProviderBuilder#sharedCache(JwksSharedCache, Duration)
+ */
+@SuppressWarnings("WeakerAccess")
+public class SharedCacheJwksHttpClient implements JwksHttpClient {
+
+    private static final long MAX_LEASE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final JwksHttpClient delegate;
+    private final JwksSharedCache cache;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final boolean storeAccepted;
+    private final Map<String, JwksHttpResponse> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a client sharing the fetched jwks through the given cache.
+     *
+     * @param delegate the client fetching the jwks from the identity provider
+     * @param cache    the shared cache
+     * @param ttl      how long a fetched document is served from the shared cache
+     */
+    public SharedCacheJwksHttpClient(JwksHttpClient delegate, JwksSharedCache cache, Duration ttl) {
+        this(delegate, cache, ttl, System::currentTimeMillis);
+    }
+
+    SharedCacheJwksHttpClient(JwksHttpClient delegate, JwksSharedCache cache, Duration ttl, LongSupplier clock) {
+        this(delegate, cache, ttl, clock, false);
+    }
+
+    /**
+     * @param storeAccepted whether fetched documents are only stored once passed to {@link #accepted(URL, String)}
+     */
+    SharedCacheJwksHttpClient(JwksHttpClient delegate, JwksSharedCache cache, Duration ttl, LongSupplier clock,
+                              boolean storeAccepted) {
+        Util.checkArgument(delegate != null, "A non-null delegate client is required");
+        Util.checkArgument(cache != null, "A non-null shared cache is required");
+        Util.checkArgument(ttl != null && !ttl.isNegative() && !ttl.isZero(), "A positive time to live is required");
+        this.delegate = delegate;
+        this.cache = cache;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.storeAccepted = storeAccepted;
+    }
+
+    @Override
+    public JwksHttpResponse fetch(URL url) throws IOException {
+        String key = url.toString();
+        JwksCacheEntry entry = read(key);
+        if (entry != null && !entry.isExpired(clock.getAsLong())) {
+            return toResponse(entry);
+        }
+        boolean locked = lock(key);
+        if (!locked && entry != null) {
+            // another node is refreshing the entry
+            return toResponse(entry);
+        }
+        try {
+            JwksHttpResponse response = delegate.fetch(url);
+            if (storeAccepted) {
+                pending.put(key, response);
+            } else {
+                store(key, response);
+            }
+            return response;
+        } catch (IOException e) {
+            if (entry != null) {
+                return toResponse(entry);
+            }
+            throw e;
+        } finally {
+            if (locked) {
+                unlock(key);
+            }
+        }
+    }
+
+    /**
+     * Stores the document last fetched from the identity provider for the given url, if it is the
+     * given accepted document. Documents read from the shared cache are not stored again.
+     *
+     * @param url      the url the document was fetched from
+     * @param document the document the provider accepted
+     */
+    void accepted(URL url, String document) {
+        String key = url.toString();
+        JwksHttpResponse response = pending.get(key);
+        if (response != null && document.equals(response.getBody()) && pending.remove(key, response)) {
+            store(key, response);
+        }
+    }
+
+    private JwksCacheEntry read(String key) {
+        try {
+            return cache.get(key);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean lock(String key) {
+        try {
+            return cache.tryLock(key, Duration.ofMillis(Math.min(ttlMillis, MAX_LEASE_MILLIS)));
+        } catch (IOException | RuntimeException e) {
+            return true;
+        }
+    }
+
+    private void unlock(String key) {
+        try {
+            cache.unlock(key);
+        } catch (IOException | RuntimeException ignored) {
+            // the lease expires on its own
+        }
+    }
+
+    private void store(String key, JwksHttpResponse response) {
+        long now = clock.getAsLong();
+        JwksCacheEntry entry = new JwksCacheEntry(response.getBody(), response.getHeaderValue("ETag"),
+                response.getHeaderValue("Last-Modified"), now, now + ttlMillis);
+        try {
+            // kept for twice the time to live, so that it can be served while it is refreshed
+            cache.put(key, entry, Duration.ofMillis(ttlMillis * 2));
+        } catch (IOException | RuntimeException ignored) {
+            // the other nodes fetch the jwks themselves
+        }
+    }
+
+    private static JwksHttpResponse toResponse(JwksCacheEntry entry) {
+        Map<String, List<String>> headers = new HashMap<>();
+        if (entry.getETag() != null) {
+            headers.put("ETag", Collections.singletonList(entry.getETag()));
+        }
+        if (entry.getLastModified() != null) {
+            headers.put("Last-Modified", Collections.singletonList(entry.getLastModified()));
+        }
+        return new JwksHttpResponse(entry.getBody(), headers);
+    }
+}
@@ -0,0 +1,137 @@
+package com.auth0.jwk;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Handle on a {@link JwkProvider} shared by every identically configured provider of the JVM.
+ *
+ * <p>Instances are created by {@link JwkProviderBuilder#build()} when
+ * {@link JwkProviderBuilder#shared(boolean)} is enabled. The underlying provider, together with its
+ * cache and rate limit, is reference counted: it is created by the first handle and closed, if it
+ * is {@link AutoCloseable}, when the last handle is closed. A closed handle can no longer be used.</p>
+ *
+ * <p>Building the underlying provider, prefetch included, happens outside of the JVM-wide lock, so that
+ * a slow build only blocks the builders of the same configuration.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SharedJwkProvider implements JwkProvider, AutoCloseable {
+
+    private static final Map<List<Object>, Entry> PROVIDERS = new HashMap<>();
+
+    private final List<Object> configuration;
+    private final Entry entry;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private SharedJwkProvider(List<Object> configuration, Entry entry) {
+        this.configuration = configuration;
+        this.entry = entry;
+    }
+
+    static SharedJwkProvider acquire(List<Object> configuration, Supplier<JwkProvider> factory) {
+        Entry entry;
+        boolean creator = false;
+        synchronized (PROVIDERS) {
+            entry = PROVIDERS.get(configuration);
+            if (entry == null) {
+                entry = new Entry();
+                PROVIDERS.put(configuration, entry);
+                creator = true;
+            }
+            entry.references++;
+        }
+        if (creator) {
+            try {
+                entry.provider.complete(factory.get());
+            } catch (RuntimeException | Error e) {
+                synchronized (PROVIDERS) {
+                    if (PROVIDERS.get(configuration) == entry) {
+                        PROVIDERS.remove(configuration);
+                    }
+                }
+                entry.provider.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            try {
+                entry.provider.join();
+            } catch (CompletionException e) {
+                // the creating builder removed the entry and reported the failure
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return new SharedJwkProvider(configuration, entry);
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        if (closed.get()) {
+            throw new IllegalStateException("The provider has been closed");
+        }
+        return entry.provider.join().get(keyId);
+    }
+
+    /**
+     * Returns a future completed once the keys of the underlying provider are loaded, when it was built
+     * with {@link JwkProviderBuilder#prefetch(boolean)}; see {@link PrefetchingJwkProvider#readiness()}.
+     * Without prefetch, nothing is loaded in advance and the returned future is already completed.
+     *
+     * @return the readiness of the underlying provider
+     */
+    public CompletableFuture<Void> readiness() {
+        JwkProvider provider = entry.provider.join();
+        if (provider instanceof PrefetchingJwkProvider) {
+            return ((PrefetchingJwkProvider) provider).readiness();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Releases this handle. The underlying provider is discarded, and closed if it is
+     * {@link AutoCloseable}, once all handles on it are closed. Closing a handle more than once has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        boolean last;
+        synchronized (PROVIDERS) {
+            last = --entry.references == 0;
+            if (last && PROVIDERS.get(configuration) == entry) {
+                PROVIDERS.remove(configuration);
+            }
+        }
+        if (last) {
+            Util.closeQuietly(entry.provider.join());
+        }
+    }
+
+    @VisibleForTesting
+    JwkProvider getBaseProvider() {
+        return entry.provider.join();
+    }
+
+    @VisibleForTesting
+    static int sharedCount() {
+        synchronized (PROVIDERS) {
+            return PROVIDERS.size();
+        }
+    }
+
+    private static final class Entry {
+        // completed by the first builder of the configuration, outside of the lock
+        final CompletableFuture<JwkProvider> provider = new CompletableFuture<>();
+        // guarded by PROVIDERS
+        int references;
+    }
+}
@@ -0,0 +1,48 @@
+package com.auth0.jwk;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Built-in {@link JwksParser} that understands just enough JSON to read a JWKS document.
+ *
+ * <p>It has no third-party dependencies, which keeps class loading at startup to a minimum and
+ * allows the library to be used without Jackson on the classpath.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class SimpleJwksParser implements JwksParser {
+
+    @Override
+    public List<Map<String, Object>> parseKeys(String json) throws IOException {
+        Object jwks = JsonReader.parse(json);
+        if (jwks != null && !(jwks instanceof Map)) {
+            throw new IOException("JWKS document is not a JSON object");
+        }
+        @SuppressWarnings("unchecked") Map<String, Object> map = (Map<String, Object>) jwks;
+        return keysOf(map);
+    }
+
+    /**
+     * Extracts and validates the {@code keys} member of a parsed JWKS document.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> keysOf(Map<String, Object> jwks) throws IOException {
+        if (jwks == null) {
+            return null;
+        }
+        Object keys = jwks.get("keys");
+        if (keys == null) {
+            return null;
+        }
+        if (!(keys instanceof List)) {
+            throw new IOException("The 'keys' member of the JWKS document is not an array");
+        }
+        for (Object key : (List<Object>) keys) {
+            if (!(key instanceof Map)) {
+                throw new IOException("The 'keys' member of the JWKS document contains a non-object entry");
+            }
+        }
+        return (List<Map<String, Object>>) keys;
+    }
+}
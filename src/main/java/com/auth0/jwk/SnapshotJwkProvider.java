@@ -0,0 +1,259 @@
+package com.auth0.jwk;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Jwk provider that caches the whole key set of a source as a single snapshot, with expiration, rate
+ * limiting and refresh built in.
+ *
+ * <p>This replaces the chain of {@link GuavaCachedJwkProvider}, {@link RateLimitedJwkProvider} and
+ * {@link UrlJwkProvider} with a single layer: a lookup of a cached key is one volatile read and one
+ * hash lookup. The snapshot is replaced by fetching the source again when it expires or when a kid
+ * is not found, at most once per token of the rate limit; concurrent lookups wait for a single fetch.
+ * When a refresh interval is given, a lookup made after it returns the cached key and refreshes the
+ * snapshot in the background, so that keys in use never expire while the source is reachable.</p>
+ *
+ * <p>Given a {@link RefreshScheduler} as well, the snapshot is refreshed ahead of expiration whether
+ * it is used or not: each fetch schedules the next one after the refresh interval plus a random
+ * jitter of up to a tenth of it, so that providers built together do not all refresh at once. A
+ * failed refresh is retried after a tenth of the interval. The scheduler does not keep the provider
+ * alive; the refreshes stop once the provider is no longer referenced, or once it is closed.</p>
+ *
+ * <p>Built by {@link JwkProviderBuilder#snapshot(Duration, Duration)}, the refresh interval adapts to
+ * how often the key set changes: it doubles up to the maximum after each fetch finding the same keys,
+ * and falls back to the minimum after a fetch finding a rotation.</p>
+ *
+ * @see JwkProviderBuilder#snapshot(boolean)
+ */
+@SuppressWarnings("WeakerAccess")
+public class SnapshotJwkProvider implements JwkSetProvider, AutoCloseable {
+
+    private final JwkSetProvider source;
+    private final long expiresInNanos;
+    private final long refreshAfterNanos;
+    private final AdaptiveRefreshInterval adaptiveRefresh;
+    private final Bucket bucket;
+    private final RefreshScheduler scheduler;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    private RefreshScheduler.Timeout scheduled;
+    private boolean closed;
+
+    /**
+     * Creates a provider caching the key set of the given source, without rate limit.
+     *
+     * @param source       the source of the keys
+     * @param expiresIn    amount of time the key set is cached
+     * @param refreshAfter amount of time after which the key set is refreshed in the background when
+     *                     used, or null to only fetch it when it expires
+     */
+    public SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, Duration refreshAfter) {
+        this(source, expiresIn, refreshAfter, null, null);
+    }
+
+    /**
+     * Creates a provider caching the key set of the given source, without rate limit, and refreshing
+     * it ahead of expiration on the given scheduler.
+     *
+     * @param source       the source of the keys
+     * @param expiresIn    amount of time the key set is cached
+     * @param refreshAfter amount of time after which the key set is refreshed in the background
+     * @param scheduler    the scheduler running the refreshes
+     */
+    public SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, Duration refreshAfter, RefreshScheduler scheduler) {
+        this(source, expiresIn, refreshAfter, null, scheduler);
+        Util.checkArgument(scheduler != null, "A non-null scheduler is required");
+    }
+
+    SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, Duration refreshAfter, Bucket bucket) {
+        this(source, expiresIn, refreshAfter, bucket, null);
+    }
+
+    SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, Duration refreshAfter, Bucket bucket, RefreshScheduler scheduler) {
+        this(source, expiresIn, refreshAfter, null, bucket, scheduler);
+    }
+
+    SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, AdaptiveRefreshInterval adaptiveRefresh, Bucket bucket, RefreshScheduler scheduler) {
+        this(source, expiresIn, null, adaptiveRefresh, bucket, scheduler);
+        Util.checkArgument(adaptiveRefresh != null, "A non-null refresh interval is required");
+    }
+
+    private SnapshotJwkProvider(JwkSetProvider source, Duration expiresIn, Duration refreshAfter, AdaptiveRefreshInterval adaptiveRefresh,
+                                Bucket bucket, RefreshScheduler scheduler) {
+        Util.checkArgument(source != null, "A non-null source is required");
+        Util.checkArgument(expiresIn != null && !expiresIn.isNegative(), "A non-negative expiration is required");
+        Util.checkArgument(refreshAfter == null || !refreshAfter.isNegative(), "The refresh interval must not be negative");
+        Util.checkArgument(scheduler == null || adaptiveRefresh != null || (refreshAfter != null && !refreshAfter.isZero()),
+                "A positive refresh interval is required to schedule refreshes");
+        this.source = source;
+        this.expiresInNanos = expiresIn.toNanos();
+        this.refreshAfterNanos = refreshAfter == null ? -1 : refreshAfter.toNanos();
+        this.adaptiveRefresh = adaptiveRefresh;
+        this.bucket = bucket;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            long age = System.nanoTime() - current.fetchedAt;
+            if (age < expiresInNanos) {
+                Jwk jwk = current.find(keyId);
+                if (jwk != null) {
+                    if (current.refreshAfterNanos >= 0 && age >= current.refreshAfterNanos) {
+                        refreshInBackground(current);
+                    }
+                    return jwk;
+                }
+            }
+        }
+        Jwk jwk = refresh(current).find(keyId);
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found with kid " + keyId, null);
+        }
+        return jwk;
+    }
+
+    /**
+     * Fetches the source and returns every key of the new snapshot.
+     *
+     * @return the keys of the source
+     * @throws JwkException if the rate limit is reached or the source cannot be fetched
+     */
+    @Override
+    public List<Jwk> getAll() throws JwkException {
+        return refresh(snapshot).keys;
+    }
+
+    private synchronized Snapshot refresh(Snapshot seen) throws JwkException {
+        Snapshot current = snapshot;
+        if (current != seen && current != null) {
+            // another thread refreshed while this one was waiting
+            return current;
+        }
+        if (bucket != null && !bucket.consume()) {
+            throw new RateLimitReachedException(bucket.willLeakIn());
+        }
+        List<Jwk> keys = source.getAll();
+        current = new Snapshot(keys, adaptiveRefresh != null ? adaptiveRefresh.next(keys) : refreshAfterNanos);
+        snapshot = current;
+        scheduleRefresh(current.refreshAfterNanos);
+        return current;
+    }
+
+    /**
+     * Cancels the scheduled refresh, if any. The provider can still be used; its snapshot is then only
+     * refreshed by lookups.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduled != null) {
+            scheduled.cancel();
+            scheduled = null;
+        }
+    }
+
+    /**
+     * Replaces the scheduled refresh, if any, with one running after the given delay plus a jitter of
+     * up to a tenth of it. Called with the lock held.
+     */
+    private void scheduleRefresh(long delayNanos) {
+        if (scheduler == null || closed) {
+            return;
+        }
+        if (scheduled != null) {
+            scheduled.cancel();
+        }
+        final WeakReference<SnapshotJwkProvider> reference = new WeakReference<>(this);
+        try {
+            scheduled = scheduler.schedule(FetchExecutor.background(() -> {
+                SnapshotJwkProvider provider = reference.get();
+                if (provider != null) {
+                    provider.refreshScheduled();
+                }
+            }), Duration.ofNanos(delayNanos + ThreadLocalRandom.current().nextLong(delayNanos / 10 + 1)));
+        } catch (IllegalStateException ignored) {
+            // the scheduler was closed; lookups still refresh the snapshot
+            scheduled = null;
+        }
+    }
+
+    private void refreshScheduled() {
+        try {
+            refresh(snapshot);
+        } catch (JwkException | RuntimeException ignored) {
+            // the cached keys are kept until they expire
+            synchronized (this) {
+                scheduleRefresh((adaptiveRefresh != null ? adaptiveRefresh.getMinNanos() : refreshAfterNanos) / 10);
+            }
+        }
+    }
+
+    private void refreshInBackground(final Snapshot seen) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        FetchExecutor.shared().execute(FetchExecutor.background(() -> {
+            try {
+                refresh(seen);
+            } catch (JwkException | RuntimeException ignored) {
+                // the cached keys are kept until they expire; the next lookup tries again
+            } finally {
+                refreshing.set(false);
+            }
+        }));
+    }
+
+    /**
+     * Returns the interval after which the current snapshot is refreshed, which varies with the
+     * rotations observed when the provider was built with an adaptive refresh interval.
+     *
+     * @return the refresh interval, or null if the snapshot is only fetched when it expires
+     */
+    public Duration getRefreshInterval() {
+        Snapshot current = snapshot;
+        long interval = current != null ? current.refreshAfterNanos
+                : adaptiveRefresh != null ? adaptiveRefresh.getMinNanos() : refreshAfterNanos;
+        return interval >= 0 ? Duration.ofNanos(interval) : null;
+    }
+
+    @VisibleForTesting
+    JwkSetProvider getBaseProvider() {
+        return source;
+    }
+
+    private static final class Snapshot {
+        final List<Jwk> keys;
+        final Map<String, Jwk> byKid;
+        final long fetchedAt;
+        final long refreshAfterNanos;
+
+        Snapshot(List<Jwk> keys, long refreshAfterNanos) {
+            this.keys = Collections.unmodifiableList(keys);
+            this.byKid = new HashMap<>();
+            for (Jwk jwk : keys) {
+                if (jwk.getId() != null) {
+                    byKid.putIfAbsent(jwk.getId(), jwk);
+                }
+            }
+            this.fetchedAt = System.nanoTime();
+            this.refreshAfterNanos = refreshAfterNanos;
+        }
+
+        Jwk find(String keyId) {
+            if (keyId == null) {
+                return keys.size() == 1 ? keys.get(0) : null;
+            }
+            return byKid.get(keyId);
+        }
+    }
+}
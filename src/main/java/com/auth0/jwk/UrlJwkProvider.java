@@ -1,23 +1,31 @@
 package com.auth0.jwk;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
-
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.net.*;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Jwk provider that loads them from a {@link URL}
  */
 @SuppressWarnings("WeakerAccess")
-public class UrlJwkProvider implements JwkProvider {
+public class UrlJwkProvider implements HoldingJwkSetProvider {
 
     @VisibleForTesting
     static final String WELL_KNOWN_JWKS_PATH = "/.well-known/jwks.json";
 
     private final AtomicReference<List<Jwk>> cachedJwks = new AtomicReference<>();
+    private final AtomicReference<JwksIndex> cachedIndex = new AtomicReference<>();
+    // used instead of cachedJwks when memory sensitive: the raw document is kept to parse it again
+    private volatile String cachedDocument;
+    private volatile Reference<List<Jwk>> softJwks;
+    // keys that a refresh removed from the jwks, served for the grace period
+    private final Map<String, RemovedKey> removedKeys = new ConcurrentHashMap<>();
 
     final URL url;
     final Proxy proxy;
@@ -25,8 +33,13 @@ public class UrlJwkProvider implements JwkProvider {
     final Integer connectTimeout;
     final Integer readTimeout;
 
-    private final ObjectReader reader;
+    private final JwksParser parser;
     private final JwksHttpClient httpClient;
+    private boolean lazyParsing;
+    private boolean memorySensitive;
+    private long gracePeriodNanos;
+    private JwksValidationPolicy validationPolicy;
+    private Consumer<String> publisher;
 
     /**
      * Creates a provider that loads from the given URL
@@ -59,6 +72,21 @@ public class UrlJwkProvider implements JwkProvider {
      * @param headers        a map of request header keys to values to send on the request. Default is "Accept: application/json".
      */
     public UrlJwkProvider(URL url, Integer connectTimeout, Integer readTimeout, Proxy proxy, Map<String, String> headers) {
+        this(url, connectTimeout, readTimeout, proxy, headers, null);
+    }
+
+    /**
+     * Creates a provider that loads from the given URL using custom request headers and a custom parser.
+     *
+     * @param url            to load the jwks
+     * @param connectTimeout connection timeout in milliseconds (default is null)
+     * @param readTimeout    read timeout in milliseconds (default is null)
+     * @param proxy          proxy server to use when making the connection (default is null)
+     * @param headers        a map of request header keys to values to send on the request. Default is "Accept: application/json".
+     * @param parser         the parser used to read the jwks (null for the default parser)
+     * @see JwksParser
+     */
+    public UrlJwkProvider(URL url, Integer connectTimeout, Integer readTimeout, Proxy proxy, Map<String, String> headers, JwksParser parser) {
         Util.checkArgument(url != null, "A non-null url is required");
         Util.checkArgument(connectTimeout == null || connectTimeout >= 0, "Invalid connect timeout value '" + connectTimeout + "'. Must be a non-negative integer.");
         Util.checkArgument(readTimeout == null || readTimeout >= 0, "Invalid read timeout value '" + readTimeout + "'. Must be a non-negative integer.");
@@ -67,7 +95,7 @@ public class UrlJwkProvider implements JwkProvider {
         this.proxy = proxy;
         this.connectTimeout = connectTimeout;
         this.readTimeout = readTimeout;
-        this.reader = new ObjectMapper().readerFor(Map.class);
+        this.parser = parser != null ? parser : defaultParser();
 
         this.headers = (headers == null) ?
                 Collections.singletonMap("Accept", "application/json") : headers;
@@ -85,6 +113,18 @@ public class UrlJwkProvider implements JwkProvider {
      * @param httpClient the custom HTTP client to use for fetching JWKS
      */
     public UrlJwkProvider(URL url, JwksHttpClient httpClient) {
+        this(url, httpClient, null);
+    }
+
+    /**
+     * Creates a provider that loads from the given URL using a custom HTTP client and a custom parser.
+     *
+     * @param url        to load the jwks
+     * @param httpClient the custom HTTP client to use for fetching JWKS
+     * @param parser     the parser used to read the jwks (null for the default parser)
+     * @see JwksParser
+     */
+    public UrlJwkProvider(URL url, JwksHttpClient httpClient, JwksParser parser) {
         Util.checkArgument(url != null, "A non-null url is required");
         Util.checkArgument(httpClient != null, "A non-null httpClient is required");
 
@@ -93,7 +133,7 @@ public class UrlJwkProvider implements JwkProvider {
         this.connectTimeout = null;
         this.readTimeout = null;
         this.headers = Collections.singletonMap("Accept", "application/json");
-        this.reader = new ObjectMapper().readerFor(Map.class);
+        this.parser = parser != null ? parser : defaultParser();
         this.httpClient = httpClient;
     }
 
@@ -132,6 +172,79 @@ public class UrlJwkProvider implements JwkProvider {
         this.cachedJwks.set(jwks);
     }
 
+    /**
+     * Simulates the garbage collector reclaiming the keys held softly in memory sensitive mode.
+     */
+    @VisibleForTesting
+    void clearSoftlyHeldJwks() {
+        Reference<List<Jwk>> reference = softJwks;
+        if (reference != null) {
+            reference.clear();
+        }
+    }
+
+    /**
+     * Enables lazy parsing of the jwks. When enabled, the fetched document is only scanned to index
+     * the position of each kid, and a key is parsed the first time it is requested. The configured
+     * {@link JwksParser} is not used in this mode.
+     *
+     * @param lazyParsing whether keys should be parsed on first use
+     */
+    void setLazyParsing(boolean lazyParsing) {
+        this.lazyParsing = lazyParsing;
+    }
+
+    /**
+     * Enables the memory sensitive mode. When enabled, the parsed keys and their public keys are held
+     * softly so that the garbage collector can reclaim them under memory pressure, while the fetched
+     * document stays strongly held. Keys that were reclaimed are parsed again from that document
+     * instead of being fetched again.
+     *
+     * @param memorySensitive whether parsed keys should be held softly
+     */
+    void setMemorySensitive(boolean memorySensitive) {
+        this.memorySensitive = memorySensitive;
+    }
+
+    /**
+     * Sets how long a key removed from the jwks by a refresh is still served. During a rotation, the
+     * edges of a CDN may serve older and newer documents for a while; without a grace period, each
+     * older document drops a key that tokens are still signed with, and the next such token fetches
+     * the jwks again.
+     *
+     * @param gracePeriod how long removed keys are kept, or null to forget them right away
+     */
+    void setGracePeriod(Duration gracePeriod) {
+        this.gracePeriodNanos = gracePeriod == null || gracePeriod.isNegative() ? 0 : gracePeriod.toNanos();
+        if (gracePeriodNanos == 0) {
+            removedKeys.clear();
+        }
+    }
+
+    /**
+     * Validates every fetched key set before it replaces the cached one. The public key of each key is
+     * built as part of the fetch; a key that fails keeps failing right away instead of being built
+     * again for each request, and a key set that the policy rejects is discarded. Validation builds
+     * every key, so it is not meant to be combined with lazy parsing.
+     *
+     * @param validationPolicy the policy deciding whether a key set is published, or null to publish
+     *                         every key set as parsed
+     */
+    void setValidationPolicy(JwksValidationPolicy validationPolicy) {
+        this.validationPolicy = validationPolicy;
+    }
+
+    /**
+     * Sets where the fetched documents are published, such as a store or a relay read by other
+     * processes. A document is only published once it is parsed and, if a validation policy is set,
+     * accepted by it, so that a document this provider rejects is not served to the others either.
+     *
+     * @param publisher the consumer of every accepted document, or null to publish nothing
+     */
+    void setPublisher(Consumer<String> publisher) {
+        this.publisher = publisher;
+    }
+
     static URL urlForDomain(String domain) {
         Util.checkArgument(!Util.isNullOrEmpty(domain), "A domain is required");
 
@@ -147,23 +260,48 @@ public class UrlJwkProvider implements JwkProvider {
         }
     }
 
-    private Map<String, Object> getJwks() throws SigningKeyNotFoundException {
+    /**
+     * Returns the parser used when none is configured: the shared Jackson parser if Jackson is on the
+     * classpath, otherwise the built-in one.
+     */
+    static JwksParser defaultParser() {
+        return DefaultParserHolder.INSTANCE;
+    }
+
+    private static final class DefaultParserHolder {
+        static final JwksParser INSTANCE = isJacksonAvailable() ? new JacksonJwksParser() : new SimpleJwksParser();
+
+        private static boolean isJacksonAvailable() {
+            try {
+                Class.forName("com.fasterxml.jackson.databind.ObjectReader", false, UrlJwkProvider.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+
+    private String fetchDocument() throws NetworkException {
         try {
-            JwksHttpResponse response = httpClient.fetch(this.url);
-            return reader.readValue(response.getBody());
+            return httpClient.fetch(this.url).getBody();
         } catch (IOException e) {
             throw new NetworkException("Cannot obtain jwks from url " + url.toString(), e);
         }
     }
 
-    public List<Jwk> getAll() throws SigningKeyNotFoundException {
-        List<Jwk> jwks = new ArrayList<>();
-        @SuppressWarnings("unchecked") final List<Map<String, Object>> keys = (List<Map<String, Object>>) getJwks().get("keys");
+    private List<Jwk> parse(String document) throws SigningKeyNotFoundException {
+        final List<Map<String, Object>> keys;
+        try {
+            keys = parser.parseKeys(document);
+        } catch (IOException e) {
+            throw new NetworkException("Cannot obtain jwks from url " + url.toString(), e);
+        }
 
         if (keys == null || keys.isEmpty()) {
             throw new SigningKeyNotFoundException("No keys found in " + url.toString(), null);
         }
 
+        List<Jwk> jwks = new ArrayList<>();
         try {
             for (Map<String, Object> values : keys) {
                 jwks.add(Jwk.fromValues(values));
@@ -171,23 +309,162 @@ public class UrlJwkProvider implements JwkProvider {
         } catch (IllegalArgumentException e) {
             throw new SigningKeyNotFoundException("Failed to parse jwk from json", e);
         }
+        return holdSoftly(jwks);
+    }
+
+    /**
+     * Fetches and parses the jwks. Unless keys are parsed lazily, the fetched keys also become the
+     * cached set, so that a lookup right after does not fetch the jwks again.
+     *
+     * @return every key of the fetched jwks
+     * @throws SigningKeyNotFoundException if the jwks cannot be fetched or parsed
+     */
+    @Override
+    public List<Jwk> getAll() throws SigningKeyNotFoundException {
+        String document = fetchDocument();
+        List<Jwk> jwks = validate(parse(document));
+        if (!lazyParsing) {
+            cache(document, jwks);
+        }
+        publish(document);
         return jwks;
     }
 
-    private List<Jwk> getCachedJwks() throws JwkException {
+    /**
+     * Returns the cached set of keys if it contains the given kid or if the kid was removed from it
+     * during the grace period, and otherwise fetches the jwks and makes it the cached set, as a lookup
+     * of that kid would.
+     *
+     * @param keyId the kid that was missed, or null for a token without kid
+     * @return the keys
+     */
+    @Override
+    public List<Jwk> getAllFor(String keyId) throws JwkException {
+        if (lazyParsing) {
+            return getAll();
+        }
+        List<Jwk> jwks = cachedJwks();
+        if (jwks != null && (searchKey(jwks, keyId).isPresent() || findRemovedKey(keyId).isPresent())) {
+            return jwks;
+        }
+        synchronized (this) {
+            jwks = cachedJwks();
+            if (jwks != null && searchKey(jwks, keyId).isPresent()) {
+                // another thread fetched it while this one was waiting
+                return jwks;
+            }
+            return fetchCachedJwks();
+        }
+    }
+
+    @Override
+    public Jwk getRemoved(String keyId) {
+        return findRemovedKey(keyId).orElse(null);
+    }
+
+    /**
+     * Builds the public key of every key and checks the outcome against the validation policy, if any.
+     */
+    private List<Jwk> validate(List<Jwk> jwks) throws SigningKeyNotFoundException {
+        if (validationPolicy == null) {
+            return jwks;
+        }
+        int invalid = 0;
+        InvalidPublicKeyException firstFailure = null;
+        for (Jwk jwk : jwks) {
+            InvalidPublicKeyException failure = jwk.materialize();
+            if (failure != null) {
+                invalid++;
+                if (firstFailure == null) {
+                    firstFailure = failure;
+                }
+            }
+        }
+        if (!validationPolicy.accept(jwks.size() - invalid, invalid)) {
+            throw new SigningKeyNotFoundException("Rejected jwks from " + url.toString() + ": " + invalid + " of "
+                    + jwks.size() + " keys are invalid", firstFailure);
+        }
+        return jwks;
+    }
+
+    /**
+     * Fetches and parses the jwks, and makes it the cached set of keys.
+     */
+    private List<Jwk> fetchCachedJwks() throws SigningKeyNotFoundException {
+        return getAll();
+    }
+
+    /**
+     * Makes the given keys the cached set, held softly along with their document in memory sensitive
+     * mode, and retires the keys of the previous set that they no longer have.
+     */
+    private synchronized void cache(String document, List<Jwk> jwks) throws SigningKeyNotFoundException {
+        List<Jwk> previous = gracePeriodNanos > 0 ? cachedJwks() : null;
+        if (!memorySensitive) {
+            cachedJwks.set(jwks);
+        } else {
+            cachedDocument = document;
+            softJwks = new SoftReference<>(jwks);
+        }
+        if (gracePeriodNanos > 0) {
+            Set<String> kids = new HashSet<>();
+            for (Jwk jwk : jwks) {
+                kids.add(jwk.getId());
+            }
+            retireRemovedKeys(previous, kids);
+        }
+    }
+
+    /**
+     * Returns the cached set of keys, parsing the cached document again if the keys were reclaimed.
+     */
+    private List<Jwk> cachedJwks() throws SigningKeyNotFoundException {
         List<Jwk> jwks = cachedJwks.get();
+        if (jwks != null || !memorySensitive) {
+            return jwks;
+        }
+        Reference<List<Jwk>> reference = softJwks;
+        jwks = reference != null ? reference.get() : null;
+        String document = cachedDocument;
+        if (jwks == null && document != null) {
+            // the document was accepted before, this only records the failures again
+            jwks = validate(parse(document));
+            softJwks = new SoftReference<>(jwks);
+        }
+        return jwks;
+    }
+
+    private List<Jwk> getCachedJwks() throws JwkException {
+        List<Jwk> jwks = cachedJwks();
         if (jwks == null) {
             synchronized (this) {
-                jwks = cachedJwks.get();
+                jwks = cachedJwks();
                 if (jwks == null) {
-                    jwks = getAll();
-                    cachedJwks.set(jwks);
+                    jwks = fetchCachedJwks();
                 }
             }
         }
         return jwks;
     }
 
+    /**
+     * Fetches the jwks and makes it the cached set of keys, as a refresh would.
+     *
+     * @return every key of the fetched jwks
+     */
+    synchronized List<Jwk> warmUp() throws SigningKeyNotFoundException {
+        if (lazyParsing) {
+            JwksIndex index = getIndex();
+            retireRemovedKeys(cachedIndex.getAndSet(index), index);
+            try {
+                return holdSoftly(index.getAll());
+            } catch (IOException | IllegalArgumentException e) {
+                throw new SigningKeyNotFoundException("Failed to parse jwk from json", e);
+            }
+        }
+        return fetchCachedJwks();
+    }
+
     private Optional<Jwk> findKey(String keyId) throws JwkException {
         List<Jwk> jwks = getCachedJwks();
         Optional<Jwk> foundKey = searchKey(jwks, keyId);
@@ -195,13 +472,150 @@ public class UrlJwkProvider implements JwkProvider {
             return foundKey;
         }
 
+        Optional<Jwk> removedKey = findRemovedKey(keyId);
+        if (removedKey.isPresent()) {
+            return removedKey;
+        }
+
+        // Key not found — refreshing JWKS from remote
+        synchronized (this) {
+            List<Jwk> freshJwks = fetchCachedJwks();
+
+            foundKey = searchKey(freshJwks, keyId);
+            return foundKey.isPresent() ? foundKey : findRemovedKey(keyId);
+        }
+    }
+
+    private JwksIndex getIndex() throws SigningKeyNotFoundException {
+        final String document;
+        final JwksIndex index;
+        try {
+            document = httpClient.fetch(this.url).getBody();
+            index = JwksIndex.scan(document);
+        } catch (IOException e) {
+            throw new NetworkException("Cannot obtain jwks from url " + url.toString(), e);
+        }
+
+        if (index.size() == 0) {
+            throw new SigningKeyNotFoundException("No keys found in " + url.toString(), null);
+        }
+        publish(document);
+        return index;
+    }
+
+    private void publish(String document) {
+        if (publisher != null) {
+            publisher.accept(document);
+        }
+    }
+
+    private Optional<Jwk> findIndexedKey(String keyId) throws JwkException {
+        JwksIndex index = cachedIndex.get();
+        if (index == null) {
+            synchronized (this) {
+                index = cachedIndex.get();
+                if (index == null) {
+                    index = getIndex();
+                    cachedIndex.set(index);
+                }
+            }
+        }
+        Optional<Jwk> foundKey = searchIndex(index, keyId);
+        if (foundKey.isPresent()) {
+            return foundKey;
+        }
+
+        Optional<Jwk> removedKey = findRemovedKey(keyId);
+        if (removedKey.isPresent()) {
+            return removedKey;
+        }
+
         // Key not found — refreshing JWKS from remote
         synchronized (this) {
-            List<Jwk> freshJwks = getAll();
-            cachedJwks.set(freshJwks);
+            JwksIndex freshIndex = getIndex();
+            JwksIndex previous = cachedIndex.getAndSet(freshIndex);
+            retireRemovedKeys(previous, freshIndex);
+
+            foundKey = searchIndex(freshIndex, keyId);
+            return foundKey.isPresent() ? foundKey : findRemovedKey(keyId);
+        }
+    }
+
+    private Optional<Jwk> searchIndex(JwksIndex index, String keyId) throws SigningKeyNotFoundException {
+        try {
+            Jwk jwk = index.get(keyId);
+            if (jwk != null && memorySensitive) {
+                jwk.holdPublicKeySoftly();
+            }
+            return Optional.ofNullable(jwk);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SigningKeyNotFoundException("Failed to parse jwk from json", e);
+        }
+    }
+
+    private void retireRemovedKeys(JwksIndex previous, JwksIndex current) {
+        if (gracePeriodNanos == 0) {
+            return;
+        }
+        Set<String> kids = new HashSet<>();
+        for (int i = 0; i < current.size(); i++) {
+            kids.add(current.kid(i));
+        }
+        List<Jwk> removed = new ArrayList<>();
+        if (previous != null) {
+            for (int i = 0; i < previous.size(); i++) {
+                String kid = previous.kid(i);
+                if (kid != null && !kids.contains(kid) && !removedKeys.containsKey(kid)) {
+                    try {
+                        removed.add(previous.get(kid));
+                    } catch (IOException | IllegalArgumentException ignored) {
+                        // a key that cannot be parsed could not have been served either
+                    }
+                }
+            }
+        }
+        retireRemovedKeys(removed, kids);
+    }
+
+    /**
+     * Keeps the keys of the previous set that the current set no longer has, and forgets the removed
+     * keys that are back in the current set or whose grace period is over.
+     */
+    private void retireRemovedKeys(List<Jwk> previous, Set<String> currentKids) {
+        final long now = System.nanoTime();
+        removedKeys.entrySet().removeIf(entry ->
+                currentKids.contains(entry.getKey()) || now - entry.getValue().removedAt >= gracePeriodNanos);
+        if (previous != null) {
+            for (Jwk jwk : previous) {
+                if (jwk.getId() != null && !currentKids.contains(jwk.getId())) {
+                    removedKeys.putIfAbsent(jwk.getId(), new RemovedKey(jwk, now));
+                }
+            }
+        }
+    }
+
+    private Optional<Jwk> findRemovedKey(String keyId) {
+        if (keyId == null || gracePeriodNanos == 0) {
+            return Optional.empty();
+        }
+        RemovedKey removed = removedKeys.get(keyId);
+        if (removed == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - removed.removedAt >= gracePeriodNanos) {
+            removedKeys.remove(keyId, removed);
+            return Optional.empty();
+        }
+        return Optional.of(removed.jwk);
+    }
 
-            return searchKey(freshJwks, keyId);
+    private List<Jwk> holdSoftly(List<Jwk> jwks) {
+        if (memorySensitive) {
+            for (Jwk jwk : jwks) {
+                jwk.holdPublicKeySoftly();
+            }
         }
+        return jwks;
     }
 
     private Optional<Jwk> searchKey(List<Jwk> jwks, String keyId) {
@@ -220,10 +634,20 @@ public class UrlJwkProvider implements JwkProvider {
 
     @Override
     public Jwk get(String keyId) throws JwkException {
-
-        return findKey(keyId).orElseThrow(() ->
+        Optional<Jwk> jwk = lazyParsing ? findIndexedKey(keyId) : findKey(keyId);
+        return jwk.orElseThrow(() ->
                 new SigningKeyNotFoundException("No key found in " + url.toString() + " with kid " + keyId, null)
         );
 
     }
+
+    private static final class RemovedKey {
+        final Jwk jwk;
+        final long removedAt;
+
+        RemovedKey(Jwk jwk, long removedAt) {
+            this.jwk = jwk;
+            this.removedAt = removedAt;
+        }
+    }
 }
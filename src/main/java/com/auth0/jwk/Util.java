@@ -10,4 +10,14 @@ class Util {
             throw new IllegalArgumentException(String.valueOf(message));
         }
     }
+
+    static void closeQuietly(Object resource) {
+        if (resource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) resource).close();
+            } catch (Exception ignored) {
+                // releasing the resources of a discarded provider is best effort
+            }
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package com.auth0.jwk;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AdaptiveJwkCacheTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final JwkProvider loader = keyId -> {
+        loads.incrementAndGet();
+        return rsa(keyId, 256);
+    };
+
+    @Test
+    public void shouldWeighKeysByKeyMaterial() {
+        assertThat(rsa("kid", 512).weight(), greaterThan(rsa("kid", 256).weight()));
+    }
+
+    @Test
+    public void shouldReportHitRatio() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        cache.get("kid", loader);
+        cache.get("kid", loader);
+        cache.get("kid", loader);
+        cache.get("kid", loader);
+
+        AdaptiveJwkCache.Stats stats = cache.stats();
+        assertThat(stats.getMissCount(), is(1L));
+        assertThat(stats.getHitCount(), is(3L));
+        assertThat(stats.getHitRatio(), is(0.75));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldGrowToWorkingSet() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        for (int i = 0; i < 20; i++) {
+            cache.get("kid-" + i, loader);
+        }
+        clock.addAndGet(WINDOW.toNanos());
+        cache.get("kid-0", loader);
+
+        AdaptiveJwkCache.Stats stats = cache.stats();
+        assertThat(stats.getWorkingSetSize(), is(20));
+        assertThat(stats.getSize(), is(20));
+        assertThat(stats.getCapacity(), greaterThanOrEqualTo(stats.getWeight()));
+        for (int i = 0; i < 20; i++) {
+            cache.get("kid-" + i, loader);
+        }
+        assertThat(loads.get(), is(20));
+    }
+
+    @Test
+    public void shouldShrinkWhenWorkingSetShrinks() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        for (int i = 0; i < 20; i++) {
+            cache.get("kid-" + i, loader);
+        }
+        clock.addAndGet(WINDOW.toNanos());
+        cache.get("kid-0", loader);
+        clock.addAndGet(WINDOW.toNanos());
+        cache.get("kid-0", loader);
+
+        AdaptiveJwkCache.Stats stats = cache.stats();
+        assertThat(stats.getWorkingSetSize(), is(1));
+        assertThat(stats.getCapacity(), is(1000L));
+        assertThat(stats.getSize(), is(1));
+        assertThat(stats.getEvictionCount(), is(19L));
+        assertThat(cache.getIfPresent("kid-0"), notNullValue());
+    }
+
+    @Test
+    public void shouldNotGrowBeyondMaxWeight() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 2000);
+        for (int i = 0; i < 20; i++) {
+            cache.get("kid-" + i, loader);
+        }
+        assertThat(cache.stats().getWeight(), lessThanOrEqualTo(2000L));
+        assertThat(cache.getIfPresent("kid-19"), notNullValue());
+    }
+
+    @Test
+    public void shouldNotCountKeysThatAreOnlyPut() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        cache.put("first", rsa("first", 256));
+        cache.put("second", rsa("second", 256));
+        cache.get("first", loader);
+        clock.addAndGet(WINDOW.toNanos());
+        cache.get("first", loader);
+
+        assertThat(cache.stats().getWorkingSetSize(), is(1));
+    }
+
+    @Test
+    public void shouldNotEvictWorkingSetForKeysThatAreOnlyPut() throws Exception {
+        AdaptiveJwkCache cache = cache(1, 100_000);
+        for (int i = 0; i < 5; i++) {
+            cache.get("kid-" + i, loader);
+        }
+        clock.addAndGet(WINDOW.toNanos());
+        cache.get("kid-0", loader);
+        assertThat(cache.stats().getWorkingSetSize(), is(5));
+
+        Map<String, Jwk> jwks = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            jwks.put("cold-" + i, rsa("cold-" + i, 256));
+        }
+        cache.putAll(jwks, loader);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.getIfPresent("kid-" + i), notNullValue());
+        }
+        assertThat(cache.stats().getWeight(), lessThanOrEqualTo(cache.stats().getCapacity()));
+        assertThat(loads.get(), is(5));
+    }
+
+    @Test
+    public void shouldNotServeExpiredKeys() throws Exception {
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        cache.get("kid", loader);
+        clock.addAndGet(Duration.ofHours(2).toNanos());
+        assertThat(cache.getIfPresent("kid"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotifyExpiredKeysWhenReplaced() throws Exception {
+        Map<String, Jwk> removed = new HashMap<>();
+        AdaptiveJwkCache cache = cache(1000, 100_000);
+        cache.setRemovalListener(removed::put);
+        cache.get("kid", loader);
+        Jwk replaced = rsa("kid", 256);
+        cache.put("kid", replaced);
+        assertThat(removed.isEmpty(), is(true));
+
+        clock.addAndGet(Duration.ofHours(2).toNanos());
+        Jwk fresh = rsa("kid", 256);
+        cache.put("kid", fresh);
+        assertThat(removed.size(), is(1));
+        assertThat(removed.get("kid"), is(sameInstance(replaced)));
+        assertThat(cache.getIfPresent("kid"), is(sameInstance(fresh)));
+    }
+
+    private AdaptiveJwkCache cache(long minWeight, long maxWeight) {
+        return new AdaptiveJwkCache(minWeight, maxWeight, Duration.ofHours(1), WINDOW, clock::get);
+    }
+
+    private static Jwk rsa(String kid, int modulusBytes) {
+        byte[] modulus = new byte[modulusBytes];
+        modulus[0] = 1;
+        Map<String, Object> values = new HashMap<>();
+        values.put("kid", kid);
+        values.put("kty", "RSA");
+        values.put("n", Base64.getUrlEncoder().withoutPadding().encodeToString(modulus));
+        values.put("e", "AQAB");
+        return Jwk.fromValues(values);
+    }
+}
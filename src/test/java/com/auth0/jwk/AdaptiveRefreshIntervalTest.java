@@ -0,0 +1,75 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.auth0.jwk.ConcurrentMapJwkCacheTest.jwk;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AdaptiveRefreshIntervalTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+    @Test
+    public void shouldBackOffWhileKeysAreStable() {
+        List<Jwk> keys = Arrays.asList(jwk("first"), jwk("second"));
+        assertThat(interval.next(keys), is(MINUTE));
+        assertThat(interval.next(keys), is(2 * MINUTE));
+        assertThat(interval.next(keys), is(4 * MINUTE));
+        assertThat(interval.next(keys), is(5 * MINUTE));
+        assertThat(interval.next(keys), is(5 * MINUTE));
+        assertThat(interval.getChanges(), is(0L));
+    }
+
+    @Test
+    public void shouldTightenAfterRotation() {
+        List<Jwk> keys = Arrays.asList(jwk("first"), jwk("second"));
+        interval.next(keys);
+        interval.next(keys);
+        interval.next(keys);
+
+        assertThat(interval.next(Arrays.asList(jwk("second"), jwk("third"))), is(MINUTE));
+        assertThat(interval.getCurrent(), equalTo(Duration.ofMinutes(1)));
+        assertThat(interval.getChanges(), is(1L));
+    }
+
+    @Test
+    public void shouldDetectChangedKeyMaterialUnderSameKid() {
+        assertThat(AdaptiveRefreshInterval.fingerprint(Arrays.asList(rsa("kid", "AQAB"))),
+                not(equalTo(AdaptiveRefreshInterval.fingerprint(Arrays.asList(rsa("kid", "AQAD"))))));
+    }
+
+    @Test
+    public void shouldIgnoreOrderOfKeys() {
+        assertThat(AdaptiveRefreshInterval.fingerprint(Arrays.asList(jwk("first"), jwk("second"))),
+                equalTo(AdaptiveRefreshInterval.fingerprint(Arrays.asList(jwk("second"), jwk("first")))));
+    }
+
+    @Test
+    public void shouldRequireMaximumNotShorterThanMinimum() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AdaptiveRefreshInterval(Duration.ofMinutes(5), Duration.ofMinutes(1));
+    }
+
+    private static Jwk rsa(String kid, String exponent) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("kid", kid);
+        values.put("kty", "RSA");
+        values.put("n", "AQAB");
+        values.put("e", exponent);
+        return Jwk.fromValues(values);
+    }
+}
@@ -0,0 +1,117 @@
+package com.auth0.jwk;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AggregatingJwkProviderTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mock
+    private JwkSetProvider first;
+
+    @Mock
+    private JwkSetProvider second;
+
+    private final Jwk firstKey = jwk("first");
+    private final Jwk secondKey = jwk("second");
+    private AggregatingJwkProvider provider;
+
+    @Before
+    public void setUp() {
+        provider = new AggregatingJwkProvider(Arrays.asList(first, second));
+    }
+
+    @Test
+    public void shouldFindKeysOfEverySource() throws Exception {
+        when(first.getAll()).thenReturn(Collections.singletonList(firstKey));
+        when(second.getAll()).thenReturn(Collections.singletonList(secondKey));
+
+        assertThat(provider.get("first"), is(firstKey));
+        assertThat(provider.get("second"), is(secondKey));
+        verify(first, times(1)).getAll();
+        verify(second, times(1)).getAll();
+    }
+
+    @Test
+    public void shouldPreferFirstSourceForDuplicateKid() throws Exception {
+        Jwk duplicate = jwk("first");
+        when(first.getAll()).thenReturn(Collections.singletonList(firstKey));
+        when(second.getAll()).thenReturn(Arrays.asList(duplicate, secondKey));
+
+        assertThat(provider.get("first"), is(firstKey));
+        assertThat(provider.getAll(), contains(firstKey, secondKey));
+    }
+
+    @Test
+    public void shouldUseHealthySourcesWhenOneFails() throws Exception {
+        when(first.getAll()).thenThrow(new NetworkException("down", null));
+        when(second.getAll()).thenReturn(Collections.singletonList(secondKey));
+
+        assertThat(provider.get("second"), is(secondKey));
+
+        List<AggregatingJwkProvider.SourceHealth> health = provider.getHealth();
+        assertThat(health.get(0).isHealthy(), is(false));
+        assertThat(health.get(0).getLastError(), instanceOf(NetworkException.class));
+        assertThat(health.get(0).getConsecutiveFailures(), is(1));
+        assertThat(health.get(1).isHealthy(), is(true));
+        assertThat(health.get(1).getKeyCount(), is(1));
+        assertThat(health.get(1).getLastLatency(), notNullValue());
+    }
+
+    @Test
+    public void shouldKeepKeysOfFailedSource() throws Exception {
+        when(first.getAll()).thenReturn(Collections.singletonList(firstKey)).thenThrow(new NetworkException("down", null));
+        when(second.getAll()).thenReturn(Collections.<Jwk>emptyList()).thenReturn(Collections.singletonList(secondKey));
+
+        assertThat(provider.get("first"), is(firstKey));
+        assertThat(provider.get("second"), is(secondKey));
+        assertThat(provider.get("first"), is(firstKey));
+    }
+
+    @Test
+    public void shouldFailWhenAllSourcesFail() throws Exception {
+        expectedException.expect(NetworkException.class);
+        when(first.getAll()).thenThrow(new NetworkException("down", null));
+        when(second.getAll()).thenThrow(new NetworkException("down", null));
+        provider.get("first");
+    }
+
+    @Test
+    public void shouldFailWhenKeyIsInNoSource() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        when(first.getAll()).thenReturn(Collections.singletonList(firstKey));
+        when(second.getAll()).thenReturn(Collections.singletonList(secondKey));
+        provider.get("missing");
+    }
+
+    @Test
+    public void shouldFailWithoutSources() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AggregatingJwkProvider(Collections.<JwkSetProvider>emptyList());
+    }
+
+    static Jwk jwk(String kid) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("kid", kid);
+        values.put("kty", "RSA");
+        return Jwk.fromValues(values);
+    }
+}
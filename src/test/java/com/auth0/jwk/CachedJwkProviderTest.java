@@ -0,0 +1,146 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auth0.jwk.ConcurrentMapJwkCacheTest.jwk;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachedJwkProviderTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mock
+    private JwkSetProvider fallback;
+
+    @Test
+    public void shouldCacheEveryKeyOfFetchedSet() throws Exception {
+        when(fallback.getAll()).thenReturn(Arrays.asList(jwk("first"), jwk("second"), jwk("third")));
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofHours(1)));
+
+        assertThat(provider.get("second").getId(), equalTo("second"));
+        assertThat(provider.get("first").getId(), equalTo("first"));
+        assertThat(provider.get("third").getId(), equalTo("third"));
+        verify(fallback, times(1)).getAll();
+        verify(fallback, never()).get(anyString());
+    }
+
+    @Test
+    public void shouldKeepRequestedKeyWhenSetIsLargerThanCache() throws Exception {
+        when(fallback.getAll()).thenReturn(Arrays.asList(jwk("first"), jwk("second"), jwk("third")));
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new ConcurrentMapJwkCache(1, Duration.ofHours(1)));
+
+        provider.get("first");
+        provider.get("first");
+        verify(fallback, times(1)).getAll();
+    }
+
+    @Test
+    public void shouldCacheSingleKeyForNullKid() throws Exception {
+        when(fallback.getAll()).thenReturn(Collections.singletonList(jwk("only")));
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofHours(1)));
+
+        assertThat(provider.get("only").getId(), equalTo("only"));
+        assertThat(provider.get(null).getId(), equalTo("only"));
+        verify(fallback, times(1)).getAll();
+    }
+
+    @Test
+    public void shouldCacheFetchedKeysWhenKidIsNotFound() throws Exception {
+        when(fallback.getAll()).thenReturn(Arrays.asList(jwk("first"), jwk("second")));
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofHours(1)));
+
+        try {
+            provider.get("unknown");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // not in the fetched key set
+        }
+        assertThat(provider.get("first").getId(), equalTo("first"));
+        verify(fallback, times(1)).getAll();
+    }
+
+    @Test
+    public void shouldLoadSingleKeyWhenBulkLoadingIsDisabled() throws Exception {
+        Jwk jwk = jwk("first");
+        when(fallback.get("first")).thenReturn(jwk);
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofHours(1)));
+        provider.setBulkLoading(false);
+
+        assertThat(provider.get("first"), sameInstance(jwk));
+        verify(fallback, never()).getAll();
+    }
+
+    @Test
+    public void shouldPropagateFetchException() throws Exception {
+        when(fallback.getAll()).thenThrow(new NetworkException("TEST!", null));
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofHours(1)));
+
+        expectedException.expect(NetworkException.class);
+        provider.get("first");
+    }
+
+    @Test
+    public void shouldReloadKeyWhoseCertificateExpired() throws Exception {
+        List<Jwk> keys = new UrlJwkProvider(getClass().getResource("/jwks.json")).getAll();
+        when(fallback.getAll()).thenReturn(keys);
+        AtomicLong clock = new AtomicLong(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli());
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofDays(3650)));
+        provider.setCertificateExpiry(Duration.ZERO, clock::get);
+
+        provider.get(KID);
+        provider.get(KID);
+        verify(fallback, times(1)).getAll();
+
+        clock.set(Instant.parse("2028-02-03T00:00:00Z").toEpochMilli());
+        assertThat(provider.get(KID).getId(), equalTo(KID));
+        verify(fallback, times(2)).getAll();
+
+        // still published with an expired certificate, it is kept until the cache expires it
+        provider.get(KID);
+        verify(fallback, times(2)).getAll();
+    }
+
+    @Test
+    public void shouldReloadKeyInBackgroundBeforeCertificateExpires() throws Exception {
+        List<Jwk> keys = new UrlJwkProvider(getClass().getResource("/jwks.json")).getAll();
+        when(fallback.getAll()).thenReturn(keys);
+        AtomicLong clock = new AtomicLong(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli());
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new GuavaJwkCache(5, Duration.ofDays(3650)));
+        provider.setCertificateExpiry(Duration.ofDays(7), clock::get);
+        Jwk jwk = provider.get(KID);
+
+        clock.set(Instant.parse("2028-02-01T00:00:00Z").toEpochMilli());
+        assertThat(provider.get(KID), sameInstance(jwk));
+        verify(fallback, timeout(10000).times(2)).getAll();
+    }
+
+    @Test
+    public void shouldReleaseDeadlinesOfEvictedKeys() throws Exception {
+        List<Jwk> keys = new UrlJwkProvider(getClass().getResource("/jwks.json")).getAll();
+        when(fallback.getAll()).thenReturn(keys);
+        AtomicLong clock = new AtomicLong(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli());
+        CachedJwkProvider provider = new CachedJwkProvider(fallback, new ConcurrentMapJwkCache(1, Duration.ofDays(3650)));
+        provider.setCertificateExpiry(Duration.ofDays(7), clock::get);
+
+        provider.get(KID);
+        assertThat(provider.trackedDeadlines(), is(1));
+    }
+}
@@ -0,0 +1,87 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.auth0.jwk.ConcurrentMapJwkCacheTest.jwk;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class CaffeineJwkCacheTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final JwkProvider loader = keyId -> {
+        loads.incrementAndGet();
+        if ("missing".equals(keyId)) {
+            throw new SigningKeyNotFoundException("No key found with kid " + keyId, null);
+        }
+        return jwk(keyId);
+    };
+
+    @Test
+    public void shouldLoadOnlyOnce() throws Exception {
+        CaffeineJwkCache cache = new CaffeineJwkCache(5, Duration.ofHours(1));
+        Jwk jwk = cache.get("kid", loader);
+        assertThat(cache.get("kid", loader), sameInstance(jwk));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldServeCachedKeyWhileRefreshing() throws Exception {
+        CaffeineJwkCache cache = new CaffeineJwkCache(5, Duration.ofHours(1), Duration.ZERO, Runnable::run);
+        Jwk first = cache.get("kid", loader);
+        assertThat(cache.get("kid", loader), sameInstance(first));
+        assertThat(loads.get(), is(2));
+        assertThat(cache.get("kid", loader), not(sameInstance(first)));
+    }
+
+    @Test
+    public void shouldKeepCachedKeyWhenRefreshFails() throws Exception {
+        CaffeineJwkCache cache = new CaffeineJwkCache(5, Duration.ofHours(1), Duration.ZERO, Runnable::run);
+        Jwk jwk = jwk("missing");
+        cache.put("missing", jwk);
+        assertThat(cache.get("missing", loader), sameInstance(jwk));
+        assertThat(cache.get("missing", loader), sameInstance(jwk));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void shouldRefreshKeysCachedInBulk() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        JwkSetProvider source = new JwkSetProvider() {
+            @Override
+            public List<Jwk> getAll() {
+                fetches.incrementAndGet();
+                return Arrays.asList(jwk("first"), jwk("second"));
+            }
+
+            @Override
+            public Jwk get(String keyId) {
+                throw new AssertionError("Keys are loaded in bulk");
+            }
+        };
+        CachedJwkProvider provider = new CachedJwkProvider(source,
+                new CaffeineJwkCache(5, Duration.ofHours(1), Duration.ZERO, Runnable::run));
+
+        provider.get("first");
+        // a hit on a key cached in bulk refreshes the whole key set
+        Jwk second = provider.get("second");
+        assertThat(fetches.get(), is(2));
+        assertThat(provider.get("second"), not(sameInstance(second)));
+    }
+
+    @Test
+    public void shouldPropagateLoaderException() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        new CaffeineJwkCache(5, Duration.ofHours(1)).get("missing", loader);
+    }
+}
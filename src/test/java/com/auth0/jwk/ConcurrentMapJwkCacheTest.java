@@ -0,0 +1,131 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ConcurrentMapJwkCacheTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final JwkProvider loader = keyId -> {
+        loads.incrementAndGet();
+        if ("missing".equals(keyId)) {
+            throw new SigningKeyNotFoundException("No key found with kid " + keyId, null);
+        }
+        return jwk(keyId);
+    };
+
+    @Test
+    public void shouldLoadOnlyOnce() throws Exception {
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ofHours(1));
+        Jwk jwk = cache.get("kid", loader);
+        assertThat(cache.get("kid", loader), sameInstance(jwk));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldReloadExpiredKeys() throws Exception {
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ZERO);
+        cache.get("kid", loader);
+        cache.get("kid", loader);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void shouldEvictOldestKeyWhenFull() throws Exception {
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(2, Duration.ofHours(1));
+        cache.get("first", loader);
+        Thread.sleep(1);
+        cache.get("second", loader);
+        Thread.sleep(1);
+        cache.get("third", loader);
+        assertThat(cache.size(), is(2));
+
+        cache.get("second", loader);
+        cache.get("third", loader);
+        assertThat(loads.get(), is(3));
+        cache.get("first", loader);
+        assertThat(loads.get(), is(4));
+    }
+
+    @Test
+    public void shouldNotifyKeysEvictedBySize() throws Exception {
+        Map<String, Jwk> removed = new HashMap<>();
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(1, Duration.ofHours(1));
+        cache.setRemovalListener(removed::put);
+        Jwk first = cache.get("first", loader);
+        cache.get("second", loader);
+
+        assertThat(removed.size(), is(1));
+        assertThat(removed.get("first"), is(sameInstance(first)));
+    }
+
+    @Test
+    public void shouldNotifyExpiredKeysWhenRead() throws Exception {
+        Map<String, Jwk> removed = new HashMap<>();
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ZERO);
+        cache.setRemovalListener(removed::put);
+        Jwk jwk = jwk("kid");
+        cache.put("kid", jwk);
+
+        assertThat(cache.getIfPresent("kid"), is(nullValue()));
+        assertThat(removed.get("kid"), is(sameInstance(jwk)));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotifyExpiredKeysWhenReplaced() throws Exception {
+        Map<String, Jwk> removed = new HashMap<>();
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ZERO);
+        cache.setRemovalListener(removed::put);
+        Jwk jwk = jwk("kid");
+        cache.put("kid", jwk);
+        cache.put("kid", jwk("kid"));
+
+        assertThat(removed.get("kid"), is(sameInstance(jwk)));
+    }
+
+    @Test
+    public void shouldNotNotifyFreshKeysWhenReplaced() throws Exception {
+        Map<String, Jwk> removed = new HashMap<>();
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ofHours(1));
+        cache.setRemovalListener(removed::put);
+        cache.put("kid", jwk("kid"));
+        cache.put("kid", jwk("kid"));
+
+        assertThat(removed.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldServePutKeys() throws Exception {
+        ConcurrentMapJwkCache cache = new ConcurrentMapJwkCache(5, Duration.ofHours(1));
+        Jwk jwk = jwk("kid");
+        cache.put("kid", jwk);
+        assertThat(cache.get("kid", loader), sameInstance(jwk));
+        assertThat(loads.get(), is(0));
+    }
+
+    @Test
+    public void shouldPropagateLoaderException() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        new ConcurrentMapJwkCache(5, Duration.ofHours(1)).get("missing", loader);
+    }
+
+    static Jwk jwk(String kid) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("kid", kid);
+        values.put("kty", "RSA");
+        return Jwk.fromValues(values);
+    }
+}
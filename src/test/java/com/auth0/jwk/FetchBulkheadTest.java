@@ -0,0 +1,150 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class FetchBulkheadTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldRejectFetchWhenQueueIsFull() throws Exception {
+        FetchBulkhead bulkhead = new FetchBulkhead(1, 0, Duration.ofSeconds(1));
+        bulkhead.acquire(false);
+
+        try {
+            bulkhead.acquire(false);
+        } catch (BulkheadFullException e) {
+            assertThat(bulkhead.getRejected(), is(1L));
+            bulkhead.release();
+            bulkhead.acquire(false);
+            assertThat(bulkhead.getInFlight(), is(1));
+            return;
+        }
+        throw new AssertionError("Expected a BulkheadFullException");
+    }
+
+    @Test
+    public void shouldRejectFetchAfterMaxWait() throws Exception {
+        FetchBulkhead bulkhead = new FetchBulkhead(1, 1, Duration.ofMillis(50));
+        bulkhead.acquire(false);
+
+        expectedException.expect(BulkheadFullException.class);
+        try {
+            bulkhead.acquire(false);
+        } finally {
+            assertThat(bulkhead.getWaiting(), is(0));
+        }
+    }
+
+    @Test
+    public void shouldStartForegroundFetchesBeforeBackgroundOnes() throws Exception {
+        final FetchBulkhead bulkhead = new FetchBulkhead(1, 10, Duration.ofSeconds(10));
+        final List<String> order = new CopyOnWriteArrayList<>();
+        bulkhead.acquire(false);
+
+        Thread background = waiter(bulkhead, true, "background", order);
+        awaitWaiting(bulkhead, 1);
+        Thread foreground = waiter(bulkhead, false, "foreground", order);
+        awaitWaiting(bulkhead, 2);
+
+        bulkhead.release();
+        background.join(5000);
+        foreground.join(5000);
+        assertThat(order, contains("foreground", "background"));
+        assertThat(bulkhead.getInFlight(), is(0));
+    }
+
+    @Test
+    public void shouldBoundConcurrentFetchesOfProviders() throws Exception {
+        final FetchBulkhead bulkhead = new FetchBulkhead(1, 10, Duration.ofSeconds(10));
+        final CountDownLatch fetching = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        JwksHttpClient slow = url -> {
+            fetching.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new JwksHttpResponse(readResource("/jwks.json"));
+        };
+        final JwkProvider first = new JwkProviderBuilder(new URL("https://first.example.com/"))
+                .httpClient(slow).bulkhead(bulkhead).build();
+        JwkProvider second = new JwkProviderBuilder(new URL("https://second.example.com/"))
+                .httpClient(url -> new JwksHttpResponse(readResource("/jwks.json"))).bulkhead(bulkhead).build();
+
+        Thread thread = new Thread(() -> {
+            try {
+                first.get(KID);
+            } catch (JwkException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        assertThat(fetching.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(bulkhead.getInFlight(), is(1));
+
+        proceed.countDown();
+        assertThat(second.get(KID).getId(), equalTo(KID));
+        thread.join(5000);
+        assertThat(bulkhead.getInFlight(), is(0));
+    }
+
+    @Test
+    public void shouldReportRejectedFetchAsNetworkError() throws Exception {
+        FetchBulkhead bulkhead = new FetchBulkhead(1, 0, Duration.ZERO);
+        bulkhead.acquire(false);
+        JwkProvider provider = new JwkProviderBuilder(new URL("https://example.com/"))
+                .httpClient(url -> new JwksHttpResponse(readResource("/jwks.json")))
+                .bulkhead(bulkhead)
+                .build();
+
+        expectedException.expect(NetworkException.class);
+        expectedException.expectCause(instanceOf(BulkheadFullException.class));
+        provider.get(KID);
+    }
+
+    @Test
+    public void shouldRequirePositiveMaxConcurrent() {
+        expectedException.expect(IllegalArgumentException.class);
+        new FetchBulkhead(0, 1, Duration.ofSeconds(1));
+    }
+
+    private static Thread waiter(final FetchBulkhead bulkhead, final boolean background, final String name, final List<String> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                bulkhead.acquire(background);
+                order.add(name);
+                bulkhead.release();
+            } catch (BulkheadFullException e) {
+                order.add(name + " rejected");
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(FetchBulkhead bulkhead, int waiting) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getWaiting() < waiting && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bulkhead.getWaiting(), is(waiting));
+    }
+}
@@ -0,0 +1,127 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class FileJwkProviderTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final String OTHER_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldLoadKeysFromFile() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks.json"), 1);
+        try (FileJwkProvider provider = new FileJwkProvider(file, null, false)) {
+            assertThat(provider.get(KID).getId(), equalTo(KID));
+            assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+            assertThat(provider.getAll(), hasSize(2));
+        }
+    }
+
+    @Test
+    public void shouldReloadWhenUnknownKidIsRequestedAfterChange() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks-single.json"), 1);
+        try (FileJwkProvider provider = new FileJwkProvider(file, null, false)) {
+            assertThat(provider.getAll(), hasSize(1));
+            write("jwks.json", readResource("/jwks.json"), 2);
+            assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+        }
+    }
+
+    @Test
+    public void shouldKeepPreviousKeysWhenFileBecomesInvalid() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks.json"), 1);
+        try (FileJwkProvider provider = new FileJwkProvider(file, null, false)) {
+            write("jwks.json", "{\"keys\": [", 2);
+            try {
+                provider.getAll();
+                throw new AssertionError("Expected a SigningKeyNotFoundException");
+            } catch (SigningKeyNotFoundException expected) {
+                // the invalid file is rejected
+            }
+            assertThat(provider.get(KID).getId(), equalTo(KID));
+        }
+    }
+
+    @Test
+    public void shouldLoadFileCreatedAfterProvider() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("jwks.json");
+        try (FileJwkProvider provider = new FileJwkProvider(file, null, false)) {
+            write("jwks.json", readResource("/jwks.json"), 1);
+            assertThat(provider.get(KID).getId(), equalTo(KID));
+        }
+    }
+
+    @Test
+    public void shouldPickUpAtomicallyReplacedFile() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks-single.json"), 1);
+        try (FileJwkProvider provider = new FileJwkProvider(file)) {
+            Path staged = write("jwks.json.tmp", readResource("/jwks.json"), 2);
+            Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+        }
+    }
+
+    @Test
+    public void shouldThrowWhenKidIsNotFound() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks.json"), 1);
+        try (FileJwkProvider provider = new FileJwkProvider(file, null, false)) {
+            expectedException.expect(SigningKeyNotFoundException.class);
+            provider.get("unknown");
+        }
+    }
+
+    @Test
+    public void shouldLoadKeysFromClasspath() throws Exception {
+        FileJwkProvider provider = FileJwkProvider.fromClasspath("jwks-single.json", new SimpleJwksParser());
+        assertThat(provider.get(null).getId(), equalTo(KID));
+    }
+
+    @Test
+    public void shouldFailWhenClasspathResourceIsMissing() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        FileJwkProvider.fromClasspath("not_found.json", null);
+    }
+
+    @Test
+    public void shouldBuildFileProviderWithoutCache() throws Exception {
+        Path file = write("jwks.json", readResource("/jwks.json"), 1);
+        JwkProvider built = new JwkProviderBuilder(file).build();
+        assertThat(built, instanceOf(FileJwkProvider.class));
+        try (FileJwkProvider provider = (FileJwkProvider) built) {
+            assertThat(provider.get(KID).getId(), equalTo(KID));
+
+            // a key removed from the file is no longer served once the file is reloaded
+            write("jwks.json", readResource("/jwks-single.json"), 2);
+            assertThat(provider.getAll(), hasSize(1));
+            expectedException.expect(SigningKeyNotFoundException.class);
+            provider.get(OTHER_KID);
+        }
+    }
+
+    private Path write(String name, String json, long modifiedSeconds) throws Exception {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.from(modifiedSeconds, TimeUnit.SECONDS));
+        return file;
+    }
+}
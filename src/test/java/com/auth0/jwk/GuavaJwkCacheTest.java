@@ -0,0 +1,94 @@
+package com.auth0.jwk;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auth0.jwk.ConcurrentMapJwkCacheTest.jwk;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GuavaJwkCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final JwkProvider loader = keyId -> {
+        loads.incrementAndGet();
+        return jwk(keyId);
+    };
+
+    @Test
+    public void shouldServeLoadedKeyWithoutLoader() throws Exception {
+        GuavaJwkCache cache = new GuavaJwkCache(5, Duration.ofHours(1));
+        assertThat(cache.getIfPresent("kid"), is(nullValue()));
+        Jwk jwk = cache.get("kid", loader);
+        assertThat(cache.getIfPresent("kid"), sameInstance(jwk));
+        assertThat(cache.get("kid", loader), sameInstance(jwk));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldServePutKeyWithoutLoader() throws Exception {
+        GuavaJwkCache cache = new GuavaJwkCache(5, Duration.ofHours(1));
+        Jwk jwk = jwk("kid");
+        cache.put("kid", jwk);
+        assertThat(cache.getIfPresent("kid"), sameInstance(jwk));
+    }
+
+    @Test
+    public void shouldNotServeExpiredKeys() throws Exception {
+        GuavaJwkCache cache = new GuavaJwkCache(5, Duration.ZERO);
+        cache.get("kid", loader);
+        assertThat(cache.getIfPresent("kid"), is(nullValue()));
+        cache.get("kid", loader);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotServeEvictedKeys() throws Exception {
+        GuavaJwkCache cache = new GuavaJwkCache(1, Duration.ofHours(1));
+        cache.get("first", loader);
+        cache.get("second", loader);
+        assertThat(cache.getIfPresent("first"), is(nullValue()));
+        assertThat(cache.getIfPresent("second"), notNullValue());
+    }
+
+    @Test
+    public void shouldServeKeysPutInBulk() throws Exception {
+        GuavaJwkCache cache = new GuavaJwkCache(5, Duration.ofHours(1));
+        Jwk first = cache.get("first", loader);
+        Map<String, Jwk> jwks = new LinkedHashMap<>();
+        jwks.put("second", jwk("second"));
+        jwks.put("third", jwk("third"));
+        cache.putAll(jwks, loader);
+        assertThat(cache.getIfPresent("first"), sameInstance(first));
+        assertThat(cache.getIfPresent("second"), sameInstance(jwks.get("second")));
+        assertThat(cache.getIfPresent("third"), sameInstance(jwks.get("third")));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedKey() throws Exception {
+        final AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        GuavaJwkCache cache = new GuavaJwkCache(2, 1, TimeUnit.HOURS, ticker);
+        cache.get("first", loader);
+        cache.get("second", loader);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cache.getIfPresent("first"), notNullValue());
+        cache.get("third", loader);
+        assertThat(cache.getIfPresent("first"), notNullValue());
+        assertThat(cache.getIfPresent("second"), is(nullValue()));
+        assertThat(cache.getIfPresent("third"), notNullValue());
+    }
+}
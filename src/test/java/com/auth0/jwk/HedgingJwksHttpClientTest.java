@@ -0,0 +1,82 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class HedgingJwksHttpClientTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final JwksHttpClient client = new JwksHttpClient() {
+        @Override
+        public JwksHttpResponse fetch(URL url) throws IOException {
+            switch (url.getHost()) {
+                case "slow":
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new JwksHttpResponse("slow");
+                case "failing":
+                    throw new IOException("failing");
+                default:
+                    return new JwksHttpResponse(url.getHost());
+            }
+        }
+    };
+
+    @Test
+    public void shouldHedgeToNextMirrorWhenFirstIsSlow() throws Exception {
+        HedgingJwksHttpClient hedging = new HedgingJwksHttpClient(client,
+                Arrays.asList(new URL("https://slow"), new URL("https://fast")), Duration.ofMillis(20));
+        try {
+            assertThat(hedging.fetch(new URL("https://slow")).getBody(), is("fast"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldFailOverWhenMirrorFails() throws Exception {
+        HedgingJwksHttpClient hedging = new HedgingJwksHttpClient(client,
+                Arrays.asList(new URL("https://failing"), new URL("https://fast")), Duration.ofSeconds(10));
+        assertThat(hedging.fetch(new URL("https://failing")).getBody(), is("fast"));
+        assertThat(hedging.getMirrorOrder().get(0).getHost(), is("fast"));
+    }
+
+    @Test
+    public void shouldFailWhenAllMirrorsFail() throws Exception {
+        expectedException.expect(IOException.class);
+        HedgingJwksHttpClient hedging = new HedgingJwksHttpClient(client,
+                Arrays.asList(new URL("https://failing"), new URL("https://failing:8443")), null);
+        hedging.fetch(new URL("https://failing"));
+    }
+
+    @Test
+    public void shouldTryRequestedUrlWhenNotAMirror() throws Exception {
+        HedgingJwksHttpClient hedging = new HedgingJwksHttpClient(client,
+                Arrays.asList(new URL("https://failing")), null);
+        assertThat(hedging.fetch(new URL("https://primary")).getBody(), is("primary"));
+    }
+
+    @Test
+    public void shouldFailWithoutMirrors() {
+        expectedException.expect(IllegalArgumentException.class);
+        new HedgingJwksHttpClient(client, Arrays.<URL>asList(), null);
+    }
+}
@@ -8,10 +8,13 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
 import static com.auth0.jwk.UrlJwkProvider.WELL_KNOWN_JWKS_PATH;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -21,6 +24,9 @@ public class JwkProviderBuilderTest {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final String OTHER_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
+
     private String domain = "samples.auth0.com";
     private String normalizedDomain = "https://" + domain;
 
@@ -54,6 +60,25 @@ public class JwkProviderBuilderTest {
         new JwkProviderBuilder((String) null).build();
     }
 
+    @Test
+    public void shouldFailWhenRefreshSchedulerIsSetWithoutSnapshotRefresh() {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("A refresh scheduler requires snapshot(Duration) to be set");
+        new JwkProviderBuilder(domain)
+                .snapshot(true)
+                .refreshScheduler(RefreshScheduler.shared())
+                .build();
+    }
+
+    @Test
+    public void shouldFailWhenRefreshSchedulerIsSetWithoutSnapshot() {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("A refresh scheduler requires snapshot(Duration) to be set");
+        new JwkProviderBuilder(domain)
+                .refreshScheduler(RefreshScheduler.shared())
+                .build();
+    }
+
     @Test
     public void shouldCreateCachedProvider() {
         JwkProvider provider = new JwkProviderBuilder(domain)
@@ -76,6 +101,20 @@ public class JwkProviderBuilderTest {
         assertThat(((GuavaCachedJwkProvider) provider).getBaseProvider(), instanceOf(UrlJwkProvider.class));
     }
 
+    @Test
+    public void shouldCreateCachedProviderWithCustomCache() {
+        JwkCache cache = new ConcurrentMapJwkCache(10, Duration.ofHours(24));
+        JwkProvider provider = new JwkProviderBuilder(domain)
+                .rateLimited(false)
+                .cache(cache)
+                .build();
+        assertThat(provider, notNullValue());
+        assertThat(provider, instanceOf(CachedJwkProvider.class));
+        assertThat(provider, not(instanceOf(GuavaCachedJwkProvider.class)));
+        assertThat(((CachedJwkProvider) provider).getCache(), sameInstance(cache));
+        assertThat(((CachedJwkProvider) provider).getBaseProvider(), instanceOf(UrlJwkProvider.class));
+    }
+
     @Test
     public void shouldCreateRateLimitedProvider() {
         JwkProvider provider = new JwkProviderBuilder(domain)
@@ -259,4 +298,45 @@ public class JwkProviderBuilderTest {
         assertThat(rateLimited, instanceOf(RateLimitedJwkProvider.class));
         assertThat(((RateLimitedJwkProvider) rateLimited).getBaseProvider(), instanceOf(UrlJwkProvider.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldServeEvictedKeyFromFetchedSetWithoutFetching() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        JwkProvider provider = new JwkProviderBuilder(new URL(normalizedDomain + WELL_KNOWN_JWKS_PATH))
+                .httpClient(url -> {
+                    fetches.incrementAndGet();
+                    return new JwksHttpResponse(readResource("/jwks.json"));
+                })
+                .cache(new ConcurrentMapJwkCache(1, Duration.ofHours(1)))
+                .build();
+
+        provider.get(KID);
+        provider.get(OTHER_KID);
+        // evicted by the cache of a single key, it is still held by the url provider
+        assertThat(provider.get(KID).getId(), equalTo(KID));
+        assertThat(fetches.get(), is(1));
+    }
+
+    @Test
+    public void shouldServeRemovedKeyDuringGracePeriod() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        JwkProvider provider = new JwkProviderBuilder(new URL(normalizedDomain + WELL_KNOWN_JWKS_PATH))
+                .httpClient(url -> new JwksHttpResponse(readResource(fetches.incrementAndGet() == 1 ? "/jwks.json" : "/jwks-single.json")))
+                .cache(new ConcurrentMapJwkCache(1, Duration.ofHours(1)))
+                .retainRemovedKeys(Duration.ofMinutes(5))
+                .build();
+
+        provider.get(OTHER_KID);
+        provider.get(KID);
+        try {
+            provider.get("unknown");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the refresh returned a document without OTHER_KID
+        }
+
+        // evicted by the cache of a single key and removed from the jwks, it is still retained
+        assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+        assertThat(fetches.get(), is(2));
+    }
+}
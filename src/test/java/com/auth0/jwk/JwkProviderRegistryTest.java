@@ -0,0 +1,103 @@
+package com.auth0.jwk;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JwkProviderRegistryTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+
+    private final List<String> fetched = Collections.synchronizedList(new ArrayList<String>());
+    private JwksHttpClient httpClient;
+
+    @Before
+    public void setUp() {
+        final String jwks = readResource("/jwks.json");
+        httpClient = new JwksHttpClient() {
+            @Override
+            public JwksHttpResponse fetch(URL url) throws IOException {
+                fetched.add(url.toString());
+                return new JwksHttpResponse(jwks);
+            }
+        };
+    }
+
+    @Test
+    public void shouldReuseProviderForSameIssuer() {
+        JwkProviderRegistry registry = new JwkProviderRegistryBuilder().httpClient(httpClient).build();
+        assertThat(registry.forIssuer("tenant-a.auth0.com"), sameInstance(registry.forIssuer("https://tenant-a.auth0.com/")));
+        assertThat(registry.forIssuer("tenant-a.auth0.com"), not(sameInstance(registry.forIssuer("tenant-b.auth0.com"))));
+        assertThat(registry.size(), is(2L));
+    }
+
+    @Test
+    public void shouldFetchThroughSharedClient() throws Exception {
+        JwkProviderRegistry registry = new JwkProviderRegistryBuilder().httpClient(httpClient).build();
+        assertThat(registry.get("tenant-a.auth0.com", KID).getId(), is(KID));
+        assertThat(registry.get("tenant-b.auth0.com", KID).getId(), is(KID));
+        assertThat(fetched, contains(
+                "https://tenant-a.auth0.com/.well-known/jwks.json",
+                "https://tenant-b.auth0.com/.well-known/jwks.json"));
+    }
+
+    @Test
+    public void shouldEvictProvidersOverMaxProviders() {
+        JwkProviderRegistry registry = new JwkProviderRegistryBuilder()
+                .httpClient(httpClient)
+                .cached(5, Duration.ofMinutes(10))
+                .maxProviders(2)
+                .build();
+        for (int i = 0; i < 20; i++) {
+            registry.forIssuer("tenant-" + i + ".auth0.com");
+        }
+        assertThat(registry.size(), lessThanOrEqualTo(2L));
+    }
+
+    @Test
+    public void shouldRebuildInvalidatedProvider() throws Exception {
+        JwkProviderRegistry registry = new JwkProviderRegistryBuilder().httpClient(httpClient).build();
+        JwkProvider provider = registry.forIssuer("tenant-a.auth0.com");
+        registry.invalidate(new URL("https://tenant-a.auth0.com/.well-known/jwks.json"));
+        assertThat(registry.size(), is(0L));
+        assertThat(registry.forIssuer("tenant-a.auth0.com"), not(sameInstance(provider)));
+    }
+
+    @Test
+    public void shouldRefreshProvidersOnSharedScheduler() throws Exception {
+        RefreshScheduler scheduler = new RefreshScheduler(Duration.ofMillis(10), 64, 1);
+        try {
+            JwkProviderRegistry registry = new JwkProviderRegistryBuilder()
+                    .httpClient(httpClient)
+                    .snapshot(Duration.ofMinutes(10))
+                    .refreshScheduler(scheduler)
+                    .build();
+            registry.get("tenant-a.auth0.com", KID);
+            registry.get("tenant-b.auth0.com", KID);
+            assertThat(registry.forIssuer("tenant-a.auth0.com"), instanceOf(SnapshotJwkProvider.class));
+            assertThat(scheduler.getScheduled(), is(2));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWithSchedulerWithoutSnapshot() {
+        new JwkProviderRegistryBuilder().refreshScheduler(RefreshScheduler.shared()).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailWithInvalidMaxProviders() {
+        new JwkProviderRegistryBuilder().maxProviders(0);
+    }
+}
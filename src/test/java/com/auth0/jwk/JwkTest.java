@@ -6,12 +6,20 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.security.PublicKey;
 import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
@@ -173,6 +181,125 @@ public class JwkTest {
         assertThat(jwk.getOperations(), nullValue());
     }
 
+    @Test
+    public void shouldRecordFailureWhenMaterialized() throws Exception {
+        Jwk jwk = Jwk.fromValues(unsupportedValues(randomKeyId()));
+        InvalidPublicKeyException failure = jwk.materialize();
+        assertThat(failure, notNullValue());
+
+        try {
+            jwk.getPublicKey();
+        } catch (InvalidPublicKeyException e) {
+            assertThat(e.getCause(), sameInstance((Throwable) failure));
+            assertThat(e.getMessage(), equalTo("The key type of " + AES + " is not supported"));
+            return;
+        }
+        throw new AssertionError("Expected an InvalidPublicKeyException");
+    }
+
+    @Test
+    public void shouldBuildPublicKeyWhenMaterialized() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        assertThat(jwk.materialize(), nullValue());
+        assertThat(jwk.getPublicKey(), sameInstance(jwk.getPublicKey()));
+    }
+
+    @Test
+    public void shouldReadCertificateValidity() throws Exception {
+        Jwk jwk = new UrlJwkProvider(getClass().getResource("/jwks-single.json")).getAll().get(0);
+        assertThat(jwk.getCertificateNotBefore(), equalTo(Instant.parse("2014-05-26T22:00:50Z")));
+        assertThat(jwk.getCertificateNotAfter(), equalTo(Instant.parse("2028-02-02T22:00:50Z")));
+    }
+
+    @Test
+    public void shouldHaveNoCertificateValidityWithoutParsableChain() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        assertThat(jwk.getCertificateNotBefore(), nullValue());
+        assertThat(jwk.getCertificateNotAfter(), nullValue());
+    }
+
+    @Test
+    public void shouldDecodeCertificatesOnce() throws Exception {
+        Jwk jwk = new UrlJwkProvider(getClass().getResource("/jwks-single.json")).getAll().get(0);
+        List<X509Certificate> certificates = jwk.getCertificates();
+        assertThat(certificates, hasSize(1));
+        assertThat(jwk.getCertificates(), sameInstance(certificates));
+    }
+
+    @Test
+    public void shouldThrowForUnparsableCertificates() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        expectedException.expect(InvalidPublicKeyException.class);
+        expectedException.expectMessage("Invalid x5c certificate chain");
+        jwk.getCertificates();
+    }
+
+    @Test
+    public void shouldThrowForMissingCertificate() throws Exception {
+        Jwk jwk = new UrlJwkProvider(getClass().getResource("/jwks-single.json")).getAll().get(0);
+        Jwk other = new Jwk(jwk.getId(), jwk.getType(), jwk.getAlgorithm(), jwk.getUsage(), jwk.getOperationsAsList(),
+                null, Collections.singletonList(null), null, jwk.getAdditionalAttributes());
+        expectedException.expect(InvalidPublicKeyException.class);
+        expectedException.expectMessage("Invalid x5c certificate chain");
+        expectedException.expectCause(instanceOf(CertificateException.class));
+        other.getCertificates();
+    }
+
+    @Test
+    public void shouldVerifyCertificateThumbprint() throws Exception {
+        Jwk jwk = new UrlJwkProvider(getClass().getResource("/jwks-single.json")).getAll().get(0);
+        assertThat(jwk.isCertificateThumbprintValid(), is(true));
+
+        Jwk other = new Jwk(jwk.getId(), jwk.getType(), jwk.getAlgorithm(), jwk.getUsage(), jwk.getOperationsAsList(),
+                null, jwk.getCertificateChain(), THUMBPRINT, jwk.getAdditionalAttributes());
+        assertThat(other.isCertificateThumbprintValid(), is(false));
+        assertThat(Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST)).isCertificateThumbprintValid(), is(false));
+    }
+
+    @Test
+    public void shouldCacheCertificateChainValidation() throws Exception {
+        List<Jwk> jwks = new UrlJwkProvider(getClass().getResource("/jwks.json")).getAll();
+        Jwk jwk = jwks.get(0);
+        Set<TrustAnchor> anchors = new HashSet<>();
+        anchors.add(new TrustAnchor(jwk.getCertificates().get(0), null));
+        jwk.verifyCertificateChain(anchors);
+
+        // validating the chain again would fail against the untrusted anchor
+        anchors.clear();
+        anchors.add(new TrustAnchor(jwks.get(1).getCertificates().get(0), null));
+        jwk.verifyCertificateChain(anchors);
+        try {
+            jwk.verifyCertificateChain(new HashSet<>(anchors));
+            throw new AssertionError("Expected an InvalidPublicKeyException");
+        } catch (InvalidPublicKeyException expected) {
+            // another set of trust anchors is validated again
+        }
+    }
+
+    @Test
+    public void shouldThrowForUntrustedCertificateChain() throws Exception {
+        List<Jwk> jwks = new UrlJwkProvider(getClass().getResource("/jwks.json")).getAll();
+        Set<TrustAnchor> anchors = Collections.singleton(new TrustAnchor(jwks.get(1).getCertificates().get(0), null));
+        Jwk jwk = jwks.get(0);
+        try {
+            jwk.verifyCertificateChain(anchors);
+            throw new AssertionError("Expected an InvalidPublicKeyException");
+        } catch (InvalidPublicKeyException e) {
+            expectedException.expect(InvalidPublicKeyException.class);
+            expectedException.expectCause(sameInstance(e.getCause()));
+            jwk.verifyCertificateChain(anchors);
+        }
+    }
+
+    @Test
+    public void shouldThrowForChainValidationWithoutCertificates() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyEllipticCurveValues(randomKeyId(), ES_256, KEY_OPS_LIST, CRV_P_256, EC_P_256_X, EC_P_256_Y));
+        expectedException.expect(InvalidPublicKeyException.class);
+        expectedException.expectMessage("The key has no x5c certificate chain");
+        X509Certificate certificate = new UrlJwkProvider(getClass().getResource("/jwks-single.json")).getAll().get(0).getCertificates().get(0);
+        jwk.verifyCertificateChain(Collections.singleton(new TrustAnchor(certificate, null)));
+    }
+
     @Test
     public void shouldThrowForUnsupportedKeyType() throws Exception {
         final String kid = randomKeyId();
@@ -210,6 +337,77 @@ public class JwkTest {
         assertThat(jwk.getPublicKey(), notNullValue());
     }
 
+    @Test
+    public void shouldRebuildAdditionalAttributesFromCompactRepresentation() throws Exception {
+        final String kid = randomKeyId();
+        Map<String, Object> values = publicKeyEllipticCurveValues(kid, ES_256, KEY_OPS_LIST, CRV_P_256, EC_P_256_X, EC_P_256_Y);
+        values.put("custom", "value");
+        Jwk jwk = Jwk.fromValues(values);
+
+        Map<String, Object> attributes = jwk.getAdditionalAttributes();
+        assertThat(attributes.size(), equalTo(4));
+        assertThat(attributes, hasEntry("x", (Object) EC_P_256_X));
+        assertThat(attributes, hasEntry("y", (Object) EC_P_256_Y));
+        assertThat(attributes, hasEntry("crv", (Object) CRV_P_256));
+        assertThat(attributes, hasEntry("custom", (Object) "value"));
+        assertThat(jwk.getAdditionalAttributes(), sameInstance(attributes));
+    }
+
+    @Test
+    public void shouldKeepNonCanonicalKeyParametersAsIs() throws Exception {
+        final String kid = randomKeyId();
+        Map<String, Object> values = publicKeyRsaValues(kid, KEY_OPS_LIST);
+        values.put("e", "AAEAAQ==");
+        Jwk jwk = Jwk.fromValues(values);
+
+        assertThat(jwk.getAdditionalAttributes(), hasEntry("e", (Object) "AAEAAQ=="));
+        assertThat(jwk.getAdditionalAttributes(), hasEntry("n", (Object) MODULUS));
+        assertThat(jwk.getPublicKey(), instanceOf(RSAPublicKey.class));
+    }
+
+    @Test
+    public void shouldShareWellKnownValues() throws Exception {
+        Map<String, Object> values = publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST);
+        values.put("kty", new String(RSA));
+        values.put("alg", new String(RS_256));
+        Jwk jwk = Jwk.fromValues(values);
+        Jwk other = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+
+        assertThat(jwk.getType(), sameInstance(other.getType()));
+        assertThat(jwk.getAlgorithm(), sameInstance(other.getAlgorithm()));
+    }
+
+    @Test
+    public void shouldPrintSameAdditionalAttributesBeforeAndAfterTheyAreRequested() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        String printed = jwk.toString();
+        assertThat(printed, containsString(MODULUS));
+
+        jwk.getAdditionalAttributes();
+        assertThat(jwk.toString(), is(printed));
+    }
+
+    @Test
+    public void shouldKeepPublicKeyWhenHeldSoftly() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        PublicKey publicKey = jwk.getPublicKey();
+        jwk.holdPublicKeySoftly();
+
+        assertThat(jwk.isPublicKeyHeldSoftly(), is(true));
+        assertThat(jwk.getPublicKey(), sameInstance(publicKey));
+    }
+
+    @Test
+    public void shouldBuildPublicKeyHeldSoftly() throws Exception {
+        Jwk jwk = Jwk.fromValues(publicKeyRsaValues(randomKeyId(), KEY_OPS_LIST));
+        jwk.holdPublicKeySoftly();
+        PublicKey publicKey = jwk.getPublicKey();
+
+        assertThat(publicKey, instanceOf(RSAPublicKey.class));
+        assertThat(jwk.isPublicKeyHeldSoftly(), is(true));
+        assertThat(jwk.getPublicKey(), sameInstance(publicKey));
+    }
+
     private static String randomKeyId() {
         byte[] bytes = new byte[50];
         new SecureRandom().nextBytes(bytes);
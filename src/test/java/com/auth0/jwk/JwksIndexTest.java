@@ -0,0 +1,87 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JwksIndexTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final String OTHER_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldIndexEveryKey() throws Exception {
+        JwksIndex index = JwksIndex.scan(readResource("/jwks.json"));
+        assertThat(index.size(), is(2));
+        assertThat(index.get(KID).getId(), is(KID));
+        assertThat(index.get(OTHER_KID).getId(), is(OTHER_KID));
+        assertThat(index.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldMaterializeKeysOnlyOnce() throws Exception {
+        JwksIndex index = JwksIndex.scan(readResource("/jwks.json"));
+        assertThat(index.get(KID), is(sameInstance(index.get(KID))));
+        assertThat(index.getAll().get(0), is(sameInstance(index.get(KID))));
+    }
+
+    @Test
+    public void shouldMaterializeSameKeysAsEagerParsing() throws Exception {
+        String json = readResource("/jwks.json");
+        Jwk lazy = JwksIndex.scan(json).get(KID);
+        Jwk eager = Jwk.fromValues(new SimpleJwksParser().parseKeys(json).get(0));
+        assertThat(lazy.getPublicKey(), equalTo(eager.getPublicKey()));
+        assertThat(lazy.getCertificateChain(), equalTo(eager.getCertificateChain()));
+    }
+
+    @Test
+    public void shouldReturnSingleKeyWithoutId() throws Exception {
+        assertThat(JwksIndex.scan(readResource("/jwks-single-no-kid.json")).get(null), is(notNullValue()));
+        assertThat(JwksIndex.scan(readResource("/jwks.json")).get(null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldBeEmptyWhenKeysAreMissing() throws Exception {
+        assertThat(JwksIndex.scan("{\"other\":{\"keys\":[{}]}}").size(), is(0));
+        assertThat(JwksIndex.scan("{\"keys\":null}").size(), is(0));
+    }
+
+    @Test
+    public void shouldFailOnInvalidJson() throws Exception {
+        expectedException.expect(IOException.class);
+        JwksIndex.scan("{\"keys\":[{\"kid\":\"a\"");
+    }
+
+    @Test
+    public void shouldFailWhenEntryIsNotAJwk() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        JwksIndex.scan(readResource("/invalid-jwks.json")).getAll();
+    }
+
+    @Test
+    public void shouldLoadKeysLazilyFromUrlProvider() throws Exception {
+        JwkProvider provider = new JwkProviderBuilder(getClass().getResource("/jwks.json"))
+                .lazyParsing(true)
+                .cached(false)
+                .rateLimited(false)
+                .build();
+        assertThat(provider.get(KID).getId(), is(KID));
+    }
+
+    @Test
+    public void shouldFailToLoadLazilyWhenKeysAreEmpty() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        UrlJwkProvider provider = new UrlJwkProvider(getClass().getResource("/empty-jwks.json"));
+        provider.setLazyParsing(true);
+        provider.get(KID);
+    }
+}
@@ -0,0 +1,129 @@
+package com.auth0.jwk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JwksRelayServerTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+
+    private JwksRelayServer relay;
+    private URL url;
+
+    @Before
+    public void setUp() throws Exception {
+        relay = JwksRelayServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        url = new URL("http://127.0.0.1:" + relay.getAddress().getPort() + UrlJwkProvider.WELL_KNOWN_JWKS_PATH);
+    }
+
+    @After
+    public void tearDown() {
+        relay.close();
+    }
+
+    @Test
+    public void shouldBeUnavailableUntilJwksIsFetched() throws Exception {
+        HttpURLConnection connection = open(url);
+        assertThat(connection.getResponseCode(), is(503));
+        assertThat(connection.getHeaderField("Retry-After"), is("1"));
+    }
+
+    @Test
+    public void shouldServeRelayedJwks() throws Exception {
+        relay.update(readResource("/jwks.json"));
+
+        HttpURLConnection connection = open(url);
+        assertThat(connection.getResponseCode(), is(200));
+        assertThat(connection.getHeaderField("Content-Type"), is("application/json"));
+        assertThat(connection.getHeaderField("ETag"), is(notNullValue()));
+        assertThat(connection.getHeaderField("Last-Modified"), is(notNullValue()));
+        assertThat(read(connection), equalTo(readResource("/jwks.json")));
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedToMatchingETag() throws Exception {
+        relay.update(readResource("/jwks.json"));
+        String eTag = open(url).getHeaderField("ETag");
+
+        HttpURLConnection connection = open(url);
+        connection.setRequestProperty("If-None-Match", "\"other\", " + eTag);
+        assertThat(connection.getResponseCode(), is(304));
+        assertThat(connection.getHeaderField("ETag"), equalTo(eTag));
+
+        relay.update(readResource("/jwks-single.json"));
+        connection = open(url);
+        connection.setRequestProperty("If-None-Match", eTag);
+        assertThat(connection.getResponseCode(), is(200));
+        assertThat(connection.getHeaderField("ETag"), not(equalTo(eTag)));
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedSinceLastChange() throws Exception {
+        relay.update(readResource("/jwks.json"));
+        String lastModified = open(url).getHeaderField("Last-Modified");
+        relay.update(readResource("/jwks.json"));
+
+        HttpURLConnection connection = open(url);
+        connection.setRequestProperty("If-Modified-Since", lastModified);
+        assertThat(connection.getResponseCode(), is(304));
+
+        connection = open(url);
+        connection.setRequestProperty("If-Modified-Since", "Thu, 01 Jan 1970 00:00:00 GMT");
+        assertThat(connection.getResponseCode(), is(200));
+    }
+
+    @Test
+    public void shouldRejectOtherMethodsAndPaths() throws Exception {
+        relay.update(readResource("/jwks.json"));
+        HttpURLConnection connection = open(url);
+        connection.setRequestMethod("DELETE");
+        assertThat(connection.getResponseCode(), is(405));
+
+        connection = open(new URL(url, "/.well-known/jwks.json/other"));
+        assertThat(connection.getResponseCode(), is(404));
+    }
+
+    @Test
+    public void shouldRelayJwksFetchedByProvider() throws Exception {
+        final String json = readResource("/jwks.json");
+        JwkProvider provider = new JwkProviderBuilder(new URL("https://example.com/"))
+                .httpClient(u -> new JwksHttpResponse(json))
+                .relayTo(relay)
+                .build();
+        provider.get(KID);
+
+        assertThat(read(open(url)), equalTo(json));
+        JwkProvider client = new UrlJwkProvider(url);
+        assertThat(client.get(KID).getId(), equalTo(KID));
+    }
+
+    private static HttpURLConnection open(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,160 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MappedJwkProviderTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final String OTHER_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadKeysFromStore() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        Jwk jwk = provider.get(KID);
+        assertThat(jwk.getId(), equalTo(KID));
+        assertThat(jwk.getPublicKey(), notNullValue());
+        assertThat(provider.get(KID), sameInstance(jwk));
+        assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+        assertThat(provider.getAll(), hasSize(2));
+        assertThat(provider.getGeneration(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldMapReplacedStore() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        assertThat(provider.get(OTHER_KID).getId(), equalTo(OTHER_KID));
+
+        MappedJwkStore.write(store, readResource("/jwks-single.json"));
+        assertThat(provider.get(KID).getId(), equalTo(KID));
+        assertThat(provider.getGeneration(), equalTo(2L));
+        assertThat(provider.getAll(), hasSize(1));
+        // the temporary file was moved over the store
+        assertThat(Files.list(folder.getRoot().toPath()).count(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldNotRewriteStoreWithSameKeys() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        Jwk jwk = provider.get(KID);
+
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+        assertThat(provider.get(KID), sameInstance(jwk));
+        assertThat(provider.getGeneration(), equalTo(1L));
+        assertThat(new MappedJwkProvider(store).getGeneration(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldLookUpManyKeys() throws Exception {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < 2000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"kid\":\"kid-").append(i).append("\",\"kty\":\"RSA\",\"n\":\"AQAB\",\"e\":\"AQAB\"}");
+        }
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, json.append("]}").toString());
+
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        for (int i = 0; i < 2000; i++) {
+            assertThat(provider.get("kid-" + i).getId(), equalTo("kid-" + i));
+        }
+    }
+
+    @Test
+    public void shouldServeFirstKeyOfDuplicatedKid() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, "{\"keys\":[{\"kid\":\"a\",\"kty\":\"EC\"},{\"kid\":\"a\",\"kty\":\"RSA\"},{\"kty\":\"RSA\"}]}");
+
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        assertThat(provider.get("a").getType(), equalTo("EC"));
+        assertThat(provider.getAll(), hasSize(3));
+    }
+
+    @Test
+    public void shouldMatchNullKidOfSingleKeyStore() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, readResource("/jwks-single.json"));
+
+        assertThat(new MappedJwkProvider(store).get(null).getId(), equalTo(KID));
+    }
+
+    @Test
+    public void shouldPickUpStoreCreatedLater() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkProvider provider = new MappedJwkProvider(store);
+        assertThat(provider.getGeneration(), equalTo(0L));
+
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+        assertThat(provider.getAll(), hasSize(2));
+        assertThat(provider.get(KID).getId(), equalTo(KID));
+    }
+
+    @Test
+    public void shouldFailWhenKeyIsMissing() throws Exception {
+        expectedException.expect(SigningKeyNotFoundException.class);
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        MappedJwkStore.write(store, readResource("/jwks.json"));
+
+        new MappedJwkProvider(store).get("missing");
+    }
+
+    @Test
+    public void shouldRejectDocumentWithoutKeys() throws Exception {
+        expectedException.expect(IOException.class);
+        MappedJwkStore.write(folder.getRoot().toPath().resolve("jwks.store"), "{\"keys\":[]}");
+    }
+
+    @Test
+    public void shouldPublishFetchedJwks() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        final String json = readResource("/jwks.json");
+        JwkProvider writer = new JwkProviderBuilder(new URL("https://example.com/"))
+                .httpClient(url -> new JwksHttpResponse(json))
+                .publishTo(store)
+                .build();
+        writer.get(KID);
+
+        assertThat(new MappedJwkProvider(store).get(OTHER_KID).getId(), equalTo(OTHER_KID));
+    }
+
+    @Test
+    public void shouldNotPublishRejectedJwks() throws Exception {
+        Path store = folder.getRoot().toPath().resolve("jwks.store");
+        JwkProvider writer = new JwkProviderBuilder(new URL("https://example.com/"))
+                .httpClient(url -> new JwksHttpResponse("{\"keys\":[{\"kty\":\"oct\",\"kid\":\"unsupported\",\"k\":\"AQAB\"}]}"))
+                .validateKeys(JwksValidationPolicy.allKeysValid())
+                .publishTo(store)
+                .build();
+        try {
+            writer.get("unsupported");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the jwks was rejected
+        }
+
+        assertThat(Files.exists(store), is(false));
+    }
+}
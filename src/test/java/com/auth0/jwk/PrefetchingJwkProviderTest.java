@@ -0,0 +1,60 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class PrefetchingJwkProviderTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final String OTHER_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldBecomeReadyOnceKeysAreLoaded() throws Exception {
+        PrefetchingJwkProvider provider = (PrefetchingJwkProvider) new JwkProviderBuilder(getClass().getResource("/jwks.json"))
+                .prefetch(true)
+                .build();
+        assertThat(provider.awaitReady(Duration.ofSeconds(10)), is(true));
+        assertThat(provider.isReady(), is(true));
+        assertThat(provider.get(KID), notNullValue());
+    }
+
+    @Test
+    public void shouldServeEveryPrefetchedKeyFromCache() throws Exception {
+        PrefetchingJwkProvider provider = (PrefetchingJwkProvider) new JwkProviderBuilder(getClass().getResource("/jwks.json"))
+                .rateLimited(1, 1, TimeUnit.HOURS)
+                .prefetch(true)
+                .build();
+        provider.awaitReady(Duration.ofSeconds(10));
+
+        // both keys are cached, so neither lookup consumes the single token of the bucket
+        assertThat(provider.get(KID), notNullValue());
+        assertThat(provider.get(OTHER_KID), notNullValue());
+        assertThat(provider.get(KID).getPublicKey(), sameInstance(provider.get(KID).getPublicKey()));
+    }
+
+    @Test
+    public void shouldReportPrefetchFailure() throws Exception {
+        PrefetchingJwkProvider provider = (PrefetchingJwkProvider) new JwkProviderBuilder(new URL("file:///not_found.file"))
+                .prefetch(true)
+                .build();
+        expectedException.expect(NetworkException.class);
+        provider.awaitReady(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void shouldNotWrapProviderByDefault() {
+        JwkProvider provider = new JwkProviderBuilder(getClass().getResource("/jwks.json")).build();
+        assertThat(provider, not(instanceOf(PrefetchingJwkProvider.class)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.auth0.jwk;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RefreshSchedulerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final RefreshScheduler scheduler = new RefreshScheduler(Duration.ofMillis(10), 4, 2);
+
+    @After
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    public void shouldRunTaskAfterDelay() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        scheduler.schedule(ran::countDown, Duration.ofMillis(50));
+
+        assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+
+    @Test
+    public void shouldRunTasksBeyondOneRotationOfTheWheel() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(3);
+        long start = System.nanoTime();
+        // the wheel covers 40 ms, so these deadlines wrap around it several times
+        scheduler.schedule(ran::countDown, Duration.ofMillis(95));
+        scheduler.schedule(ran::countDown, Duration.ofMillis(130));
+        scheduler.schedule(ran::countDown, Duration.ofMillis(150));
+
+        assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150)));
+    }
+
+    @Test
+    public void shouldNotRunCancelledTask() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        RefreshScheduler.Timeout timeout = scheduler.schedule(runs::incrementAndGet, Duration.ofMillis(50));
+        final CountDownLatch later = new CountDownLatch(1);
+        scheduler.schedule(later::countDown, Duration.ofMillis(100));
+
+        assertThat(timeout.cancel(), is(true));
+        assertThat(timeout.isCancelled(), is(true));
+        assertThat(later.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(runs.get(), is(0));
+        assertThat(scheduler.getScheduled(), is(0));
+    }
+
+    @Test
+    public void shouldHoldManyDeadlines() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(5000);
+        for (int i = 0; i < 5000; i++) {
+            scheduler.schedule(ran::countDown, Duration.ofMillis(i % 200));
+        }
+        assertThat(ran.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldRejectTasksWhenClosed() throws Exception {
+        scheduler.close();
+        expectedException.expect(IllegalStateException.class);
+        scheduler.schedule(() -> { }, Duration.ZERO);
+    }
+}
@@ -0,0 +1,143 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auth0.jwk.SimpleJwksParserTest.readResource;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SharedCacheJwksHttpClientTest {
+
+    private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final InMemoryJwksSharedCache cache = new InMemoryJwksSharedCache(clock::get);
+
+    @Test
+    public void shouldFetchOncePerTtlAcrossNodes() throws Exception {
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        SharedCacheJwksHttpClient node1 = new SharedCacheJwksHttpClient(idp(), cache, TTL, clock::get);
+        SharedCacheJwksHttpClient node2 = new SharedCacheJwksHttpClient(idp(), cache, TTL, clock::get);
+
+        assertThat(node1.fetch(url).getBody(), equalTo(readResource("/jwks.json")));
+        assertThat(node2.fetch(url).getBody(), equalTo(readResource("/jwks.json")));
+        assertThat(node2.fetch(url).getHeaderValue("ETag"), equalTo("\"v1\""));
+        assertThat(fetches.get(), is(1));
+
+        clock.addAndGet(TTL.toMillis());
+        node2.fetch(url);
+        node1.fetch(url);
+        assertThat(fetches.get(), is(2));
+    }
+
+    @Test
+    public void shouldServeExpiredEntryWhileAnotherNodeRefreshes() throws Exception {
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        SharedCacheJwksHttpClient node = new SharedCacheJwksHttpClient(idp(), cache, TTL, clock::get);
+        node.fetch(url);
+        clock.addAndGet(TTL.toMillis());
+
+        assertThat(cache.tryLock(url.toString(), TTL), is(true));
+        assertThat(node.fetch(url).getBody(), equalTo(readResource("/jwks.json")));
+        assertThat(fetches.get(), is(1));
+    }
+
+    @Test
+    public void shouldServeExpiredEntryWhenFetchFails() throws Exception {
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        new SharedCacheJwksHttpClient(idp(), cache, TTL, clock::get).fetch(url);
+        clock.addAndGet(TTL.toMillis());
+
+        JwksHttpClient failing = u -> {
+            throw new IOException("unavailable");
+        };
+        assertThat(new SharedCacheJwksHttpClient(failing, cache, TTL, clock::get).fetch(url).getBody(),
+                equalTo(readResource("/jwks.json")));
+    }
+
+    @Test
+    public void shouldFetchWhenSharedCacheFails() throws Exception {
+        JwksSharedCache broken = new JwksSharedCache() {
+            @Override
+            public JwksCacheEntry get(String key) throws IOException {
+                throw new IOException("unreachable");
+            }
+
+            @Override
+            public void put(String key, JwksCacheEntry entry, Duration retention) throws IOException {
+                throw new IOException("unreachable");
+            }
+        };
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        assertThat(new SharedCacheJwksHttpClient(idp(), broken, TTL).fetch(url).getBody(), equalTo(readResource("/jwks.json")));
+        assertThat(fetches.get(), is(1));
+    }
+
+    @Test
+    public void shouldForgetEntriesAfterRetention() throws Exception {
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        new SharedCacheJwksHttpClient(idp(), cache, TTL, clock::get).fetch(url);
+        clock.addAndGet(TTL.toMillis() * 2);
+
+        assertThat(cache.get(url.toString()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldShareKeysBetweenProviders() throws Exception {
+        InMemoryJwksSharedCache shared = new InMemoryJwksSharedCache();
+        URL url = new URL("https://example.com/");
+        JwkProvider node1 = new JwkProviderBuilder(url).httpClient(idp()).sharedCache(shared, TTL).build();
+        JwkProvider node2 = new JwkProviderBuilder(url).httpClient(idp()).sharedCache(shared, TTL).build();
+
+        assertThat(node1.get(KID).getId(), equalTo(KID));
+        assertThat(node2.get(KID).getId(), equalTo(KID));
+        assertThat(fetches.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotShareRejectedJwks() throws Exception {
+        InMemoryJwksSharedCache shared = new InMemoryJwksSharedCache();
+        URL url = new URL("https://example.com/");
+        JwkProvider node = new JwkProviderBuilder(url)
+                .httpClient(ignored -> new JwksHttpResponse("{\"keys\":[{\"kty\":\"oct\",\"kid\":\"unsupported\",\"k\":\"AQAB\"}]}"))
+                .validateKeys(JwksValidationPolicy.allKeysValid())
+                .sharedCache(shared, TTL)
+                .build();
+        try {
+            node.get("unsupported");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the jwks was rejected
+        }
+
+        assertThat(shared.get(url.toString()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRequirePositiveTtl() {
+        expectedException.expect(IllegalArgumentException.class);
+        new SharedCacheJwksHttpClient(idp(), cache, Duration.ZERO);
+    }
+
+    private JwksHttpClient idp() {
+        return url -> {
+            fetches.incrementAndGet();
+            return new JwksHttpResponse(readResource("/jwks.json"),
+                    Collections.singletonMap("ETag", Collections.singletonList("\"v1\"")));
+        };
+    }
+}
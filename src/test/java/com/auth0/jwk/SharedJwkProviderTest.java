@@ -0,0 +1,177 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SharedJwkProviderTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final URL url = getClass().getResource("/jwks.json");
+
+    @Test
+    public void shouldShareProviderForSameConfiguration() {
+        int before = SharedJwkProvider.sharedCount();
+        SharedJwkProvider first = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        SharedJwkProvider second = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+
+        assertThat(first.getBaseProvider(), sameInstance(second.getBaseProvider()));
+        assertThat(SharedJwkProvider.sharedCount(), is(before + 1));
+
+        first.close();
+        assertThat(SharedJwkProvider.sharedCount(), is(before + 1));
+        second.close();
+        assertThat(SharedJwkProvider.sharedCount(), is(before));
+    }
+
+    @Test
+    public void shouldNotShareProviderForDifferentConfiguration() {
+        SharedJwkProvider first = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        SharedJwkProvider second = (SharedJwkProvider) new JwkProviderBuilder(url)
+                .rateLimited(5, 1, TimeUnit.MINUTES)
+                .shared(true)
+                .build();
+
+        assertThat(first.getBaseProvider(), not(sameInstance(second.getBaseProvider())));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void shouldNotShareProviderForMirrorsOnDifferentHostsOfSameAddress() throws Exception {
+        Duration hedgeDelay = Duration.ofMillis(100);
+        SharedJwkProvider first = (SharedJwkProvider) new JwkProviderBuilder(url)
+                .mirrors(Collections.singletonList(new URL("http://localhost/jwks.json")), hedgeDelay)
+                .shared(true)
+                .build();
+        SharedJwkProvider second = (SharedJwkProvider) new JwkProviderBuilder(url)
+                .mirrors(Collections.singletonList(new URL("http://127.0.0.1/jwks.json")), hedgeDelay)
+                .shared(true)
+                .build();
+
+        assertThat(first.getBaseProvider(), not(sameInstance(second.getBaseProvider())));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void shouldTellWhenPrefetchedKeysOfSharedProviderAreReady() throws Exception {
+        SharedJwkProvider provider = (SharedJwkProvider) new JwkProviderBuilder(url)
+                .prefetch(true)
+                .shared(true)
+                .build();
+
+        assertThat(provider.getBaseProvider(), instanceOf(PrefetchingJwkProvider.class));
+        provider.readiness().get(10, TimeUnit.SECONDS);
+        assertThat(provider.readiness().isCompletedExceptionally(), is(false));
+        provider.close();
+    }
+
+    @Test
+    public void shouldBeReadyWithoutPrefetch() {
+        SharedJwkProvider provider = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+
+        assertThat(provider.readiness().isDone(), is(true));
+        provider.close();
+    }
+
+    @Test
+    public void shouldCreateNewProviderAfterAllHandlesAreClosed() {
+        SharedJwkProvider first = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        JwkProvider base = first.getBaseProvider();
+        first.close();
+        first.close();
+
+        SharedJwkProvider second = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        assertThat(second.getBaseProvider(), not(sameInstance(base)));
+        second.close();
+    }
+
+    @Test
+    public void shouldGetKeyThroughSharedProvider() throws Exception {
+        SharedJwkProvider provider = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        assertThat(provider.get("NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg"), notNullValue());
+        provider.close();
+    }
+
+    @Test
+    public void shouldCloseProviderWhenLastHandleIsClosed() throws Exception {
+        RefreshScheduler scheduler = new RefreshScheduler(Duration.ofMillis(10), 64, 1);
+        try {
+            SharedJwkProvider first = (SharedJwkProvider) new JwkProviderBuilder(url)
+                    .snapshot(Duration.ofMinutes(10)).refreshScheduler(scheduler).shared(true).build();
+            SharedJwkProvider second = (SharedJwkProvider) new JwkProviderBuilder(url)
+                    .snapshot(Duration.ofMinutes(10)).refreshScheduler(scheduler).shared(true).build();
+            first.get("NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg");
+            assertThat(scheduler.getScheduled(), is(1));
+
+            first.close();
+            assertThat(scheduler.getScheduled(), is(1));
+            second.close();
+            assertThat(scheduler.getScheduled(), is(0));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void shouldNotBlockOtherConfigurationsWhileBuilding() throws Exception {
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final List<Object> slow = Collections.<Object>singletonList("slow");
+        Thread thread = new Thread(() -> SharedJwkProvider.acquire(slow, () -> {
+            building.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new UrlJwkProvider(url);
+        }).close());
+        thread.start();
+        assertThat(building.await(5, TimeUnit.SECONDS), is(true));
+
+        SharedJwkProvider other = SharedJwkProvider.acquire(Collections.<Object>singletonList("fast"), () -> new UrlJwkProvider(url));
+        assertThat(proceed.getCount(), is(1L));
+        other.close();
+        proceed.countDown();
+        thread.join(5000);
+    }
+
+    @Test
+    public void shouldRetryBuildAfterFailure() {
+        List<Object> configuration = Arrays.<Object>asList("failing", url);
+        try {
+            SharedJwkProvider.acquire(configuration, () -> {
+                throw new IllegalStateException("build failed");
+            });
+            throw new AssertionError("Expected an IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage(), is("build failed"));
+        }
+        SharedJwkProvider provider = SharedJwkProvider.acquire(configuration, () -> new UrlJwkProvider(url));
+        assertThat(provider.getBaseProvider(), instanceOf(UrlJwkProvider.class));
+        provider.close();
+    }
+
+    @Test
+    public void shouldFailToGetKeyAfterClose() throws Exception {
+        SharedJwkProvider provider = (SharedJwkProvider) new JwkProviderBuilder(url).shared(true).build();
+        provider.close();
+        expectedException.expect(IllegalStateException.class);
+        provider.get("NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg");
+    }
+}
@@ -0,0 +1,91 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SimpleJwksParserTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final SimpleJwksParser parser = new SimpleJwksParser();
+
+    @Test
+    public void shouldParseSameKeysAsJackson() throws Exception {
+        String json = readResource("/jwks.json");
+        List<Map<String, Object>> keys = parser.parseKeys(json);
+        assertThat(keys, hasSize(2));
+        assertThat(keys, equalTo(new JacksonJwksParser().parseKeys(json)));
+    }
+
+    @Test
+    public void shouldReturnNullWhenKeysAreMissing() throws Exception {
+        assertThat(parser.parseKeys("{}"), is(nullValue()));
+        assertThat(parser.parseKeys("null"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldParseValuesOfEveryType() throws Exception {
+        List<Map<String, Object>> keys = parser.parseKeys(
+                "{\"keys\":[{\"kty\":\"RSA\",\"s\":\"a\\\"b\\u0041\\/\",\"i\":1,\"l\":12345678901,\"d\":1.5,\"t\":true,\"f\":false,\"n\":null,\"a\":[]}]}");
+        Map<String, Object> key = keys.get(0);
+        assertThat(key.get("s"), equalTo((Object) "a\"bA/"));
+        assertThat(key.get("i"), equalTo((Object) 1));
+        assertThat(key.get("l"), equalTo((Object) 12345678901L));
+        assertThat(key.get("d"), equalTo((Object) 1.5));
+        assertThat(key.get("t"), equalTo((Object) Boolean.TRUE));
+        assertThat(key.get("f"), equalTo((Object) Boolean.FALSE));
+        assertThat(key.containsKey("n"), is(true));
+        assertThat(key.get("n"), is(nullValue()));
+        assertThat((List<?>) key.get("a"), is(empty()));
+    }
+
+    @Test
+    public void shouldFailOnInvalidJson() throws Exception {
+        expectedException.expect(IOException.class);
+        parser.parseKeys("{\"keys\":[{\"kty\":\"RSA\",}]}");
+    }
+
+    @Test
+    public void shouldFailOnTrailingContent() throws Exception {
+        expectedException.expect(IOException.class);
+        parser.parseKeys("{\"keys\":[]} {}");
+    }
+
+    @Test
+    public void shouldFailWhenKeysIsNotAnArray() throws Exception {
+        expectedException.expect(IOException.class);
+        parser.parseKeys("{\"keys\":\"nope\"}");
+    }
+
+    @Test
+    public void shouldFailWhenKeyIsNotAnObject() throws Exception {
+        expectedException.expect(IOException.class);
+        parser.parseKeys("{\"keys\":[1]}");
+    }
+
+    @Test
+    public void shouldLoadKeysWithBuiltInParser() throws Exception {
+        UrlJwkProvider provider = new UrlJwkProvider(getClass().getResource("/jwks.json"), new DefaultJwksHttpClient(null, null, null, null), parser);
+        assertThat(provider.getAll(), hasSize(2));
+    }
+
+    static String readResource(String name) {
+        try (InputStream in = SimpleJwksParserTest.class.getResourceAsStream(name);
+             Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.auth0.jwk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.auth0.jwk.ConcurrentMapJwkCacheTest.jwk;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SnapshotJwkProviderTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final CountingSource source = new CountingSource(jwk("first"), jwk("second"));
+
+    @Test
+    public void shouldServeEveryKeyFromOneFetch() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), null);
+        assertThat(provider.get("first").getId(), equalTo("first"));
+        assertThat(provider.get("second").getId(), equalTo("second"));
+        assertThat(provider.get("first").getId(), equalTo("first"));
+        assertThat(source.fetches.get(), is(1));
+    }
+
+    @Test
+    public void shouldRefreshWhenKidIsNotFound() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), null);
+        provider.get("first");
+        source.keys.add(jwk("third"));
+        assertThat(provider.get("third").getId(), equalTo("third"));
+        assertThat(source.fetches.get(), is(2));
+    }
+
+    @Test
+    public void shouldRefreshWhenExpired() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ZERO, null);
+        provider.get("first");
+        provider.get("first");
+        assertThat(source.fetches.get(), is(2));
+    }
+
+    @Test
+    public void shouldThrowWhenKidIsMissingAfterRefresh() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), null);
+        expectedException.expect(SigningKeyNotFoundException.class);
+        provider.get("unknown");
+    }
+
+    @Test
+    public void shouldRateLimitRefreshes() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), null,
+                new BucketImpl(1, 1, TimeUnit.HOURS));
+        provider.get("first");
+        assertThat(provider.get("second").getId(), equalTo("second"));
+        expectedException.expect(RateLimitReachedException.class);
+        provider.get("unknown");
+    }
+
+    @Test
+    public void shouldReturnSingleKeyWhenKidIsNull() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(new CountingSource(jwk("only")), Duration.ofHours(1), null);
+        assertThat(provider.get(null).getId(), equalTo("only"));
+    }
+
+    @Test
+    public void shouldRefreshInBackgroundWhileServingCachedKeys() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), Duration.ZERO);
+        Jwk jwk = provider.get("first");
+        assertThat(provider.get("first"), sameInstance(jwk));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (source.fetches.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(source.fetches.get(), is(2));
+    }
+
+    @Test
+    public void shouldRefreshOnSchedulerWithoutLookups() throws Exception {
+        try (RefreshScheduler scheduler = new RefreshScheduler(Duration.ofMillis(10), 8, 1)) {
+            SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1), Duration.ofMillis(50), scheduler);
+            provider.get("first");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (source.fetches.get() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(source.fetches.get(), greaterThanOrEqualTo(3));
+            assertThat(scheduler.getScheduled(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldAdaptRefreshIntervalToRotations() throws Exception {
+        SnapshotJwkProvider provider = new SnapshotJwkProvider(source, Duration.ofHours(1),
+                new AdaptiveRefreshInterval(Duration.ofMinutes(1), Duration.ofMinutes(10)), null, null);
+        provider.getAll();
+        provider.getAll();
+        assertThat(provider.getRefreshInterval(), equalTo(Duration.ofMinutes(2)));
+
+        source.keys.add(jwk("third"));
+        provider.getAll();
+        assertThat(provider.getRefreshInterval(), equalTo(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void shouldRequireRefreshIntervalToSchedule() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        new SnapshotJwkProvider(source, Duration.ofHours(1), null, RefreshScheduler.shared());
+    }
+
+    @Test
+    public void shouldBeCreatedByBuilder() throws Exception {
+        JwkProvider provider = new JwkProviderBuilder(getClass().getResource("/jwks.json"))
+                .snapshot(true)
+                .build();
+        assertThat(provider, instanceOf(SnapshotJwkProvider.class));
+        assertThat(((SnapshotJwkProvider) provider).getBaseProvider(), instanceOf(UrlJwkProvider.class));
+        assertThat(provider.get("NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg"), notNullValue());
+    }
+
+    private static class CountingSource implements JwkSetProvider {
+        final List<Jwk> keys;
+        final AtomicInteger fetches = new AtomicInteger();
+
+        CountingSource(Jwk... keys) {
+            this.keys = new ArrayList<>(Arrays.asList(keys));
+        }
+
+        @Override
+        public List<Jwk> getAll() {
+            fetches.incrementAndGet();
+            return new ArrayList<>(keys);
+        }
+
+        @Override
+        public Jwk get(String keyId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
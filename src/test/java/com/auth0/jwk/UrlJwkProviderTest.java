@@ -11,6 +11,7 @@ import org.mockito.stubbing.Answer;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.net.*;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +27,10 @@ import static org.mockito.Mockito.*;
 public class UrlJwkProviderTest {
 
     private static final String KID = "NkJCQzIyQzRBMEU4NjhGNUU4MzU4RkY0M0ZDQzkwOUQ0Q0VGNUMwQg";
+    // only published by jwks.json, not by jwks-single.json
+    private static final String UNSUPPORTED_KEY = "{\"kty\":\"oct\",\"kid\":\"unsupported\",\"k\":\"AQAB\"}";
+    private static final String UNSUPPORTED_JWKS = "{\"keys\":[" + UNSUPPORTED_KEY + "]}";
+    private static final String REMOVED_KID = "RUVBOTVEMEZBMTA5NDAzNEQzNTZGNzMyMTI4MzU1RkNFQzhCQTM0Mg";
 
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
@@ -432,6 +437,148 @@ public class UrlJwkProviderTest {
         provider.get(KID);
     }
 
+    @Test
+    public void shouldParseCachedDocumentAgainWhenKeysAreReclaimed() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setMemorySensitive(true);
+
+        Jwk jwk = provider.get(KID);
+        assertThat(jwk.isPublicKeyHeldSoftly(), is(true));
+        assertThat(provider.get(KID), is(sameInstance(jwk)));
+
+        provider.clearSoftlyHeldJwks();
+        Jwk reparsed = provider.get(KID);
+        assertThat(reparsed, is(not(sameInstance(jwk))));
+        assertThat(reparsed.getPublicKey(), is(equalTo(jwk.getPublicKey())));
+        verify(customClient, times(1)).fetch(url);
+    }
+
+    @Test
+    public void shouldHoldKeysFetchedByGetAllSoftly() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setMemorySensitive(true);
+
+        provider.getAll();
+        assertThat(provider.get(KID).isPublicKeyHeldSoftly(), is(true));
+        provider.clearSoftlyHeldJwks();
+        assertThat(provider.get(KID).getId(), is(KID));
+        verify(customClient, times(1)).fetch(url);
+    }
+
+    @Test
+    public void shouldServeRemovedKeyDuringGracePeriod() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")),
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks-single.json")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setGracePeriod(Duration.ofMinutes(5));
+        Jwk jwk = provider.get(REMOVED_KID);
+        try {
+            provider.get("unknown");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the refresh returned a document without REMOVED_KID
+        }
+
+        assertThat(provider.get(REMOVED_KID), is(sameInstance(jwk)));
+        verify(customClient, times(2)).fetch(url);
+    }
+
+    @Test
+    public void shouldServeRemovedKeyDuringGracePeriodWithLazyParsing() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")),
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks-single.json")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setLazyParsing(true);
+        provider.setGracePeriod(Duration.ofMinutes(5));
+        provider.get(REMOVED_KID);
+        try {
+            provider.get("unknown");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the refresh returned a document without REMOVED_KID
+        }
+
+        assertThat(provider.get(REMOVED_KID).getId(), is(REMOVED_KID));
+        verify(customClient, times(2)).fetch(url);
+    }
+
+    @Test
+    public void shouldFetchAgainForRemovedKeyWithoutGracePeriod() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")),
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks-single.json")),
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.get(REMOVED_KID);
+        try {
+            provider.get("unknown");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException expected) {
+            // the refresh returned a document without REMOVED_KID
+        }
+
+        assertThat(provider.get(REMOVED_KID).getId(), is(REMOVED_KID));
+        verify(customClient, times(3)).fetch(url);
+    }
+
+    @Test
+    public void shouldKeepPreviousKeysWhenFetchedJwksIsRejected() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(
+                new JwksHttpResponse(SimpleJwksParserTest.readResource("/jwks.json")),
+                new JwksHttpResponse(UNSUPPORTED_JWKS));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setValidationPolicy(JwksValidationPolicy.allKeysValid());
+        Jwk jwk = provider.get(KID);
+        try {
+            provider.get("unsupported");
+            throw new AssertionError("Expected a SigningKeyNotFoundException");
+        } catch (SigningKeyNotFoundException e) {
+            assertThat(e.getMessage(), containsString("1 of 1 keys are invalid"));
+        }
+
+        assertThat(provider.get(KID), is(sameInstance(jwk)));
+        verify(customClient, times(2)).fetch(url);
+    }
+
+    @Test
+    public void shouldFailFastForInvalidKeyOfAcceptedJwks() throws Exception {
+        JwksHttpClient customClient = mock(JwksHttpClient.class);
+        when(customClient.fetch(any(URL.class))).thenReturn(new JwksHttpResponse(
+                SimpleJwksParserTest.readResource("/jwks-single.json").replaceFirst("\\[", "[" + UNSUPPORTED_KEY + ",")));
+
+        URL url = new URL("https://example.com/.well-known/jwks.json");
+        UrlJwkProvider provider = new UrlJwkProvider(url, customClient);
+        provider.setValidationPolicy(JwksValidationPolicy.anyKeyValid());
+
+        assertThat(provider.get(KID).getPublicKey(), notNullValue());
+        Jwk unsupported = provider.get("unsupported");
+        expectedException.expect(InvalidPublicKeyException.class);
+        expectedException.expectCause(instanceOf(InvalidPublicKeyException.class));
+        unsupported.getPublicKey();
+    }
+
     @Test
     public void shouldFailWithNullHttpClient() {
         expectedException.expect(IllegalArgumentException.class);